@@ -1,5 +1,9 @@
 package ObeserverPattern;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 public class AcademicObserver implements StudentObserver {
 
     int graduationYear;
@@ -10,7 +14,24 @@ public class AcademicObserver implements StudentObserver {
         generateScoreCard();
     }
 
+    // the score card shows cgr and specialization
+    @Override
+    public Set<StudentField> interests() {
+        return EnumSet.of(StudentField.CGR, StudentField.SPECIALIZATION);
+    }
+
+    @Override
+    public void updateBatch(List<Student> students) {
+        System.out.println("[" + students.size() + " STUDENTS UPDATED -> notified to academic sub]");
+        generateScoreCards(students);
+    }
+
     public void generateScoreCard() {
         System.out.println("[RE_GENERATED GRADE SHEET!]");
     }
+
+    // one pass for the whole batch instead of one per student
+    public void generateScoreCards(List<Student> students) {
+        System.out.println("[RE_GENERATED " + students.size() + " GRADE SHEETS!]");
+    }
 }
@@ -1,5 +1,8 @@
 package ObeserverPattern;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public class HostelObserver  implements StudentObserver{
 
     int roomNo;
@@ -10,6 +13,12 @@ public class HostelObserver  implements StudentObserver{
         leave();
     }
 
+    // the hostel only needs to know who is away
+    @Override
+    public Set<StudentField> interests() {
+        return EnumSet.of(StudentField.LEAVE);
+    }
+
     public void leave() {
         System.out.println("[Student is on leave!]");
     }
@@ -0,0 +1,17 @@
+package ObeserverPattern;
+
+// hook for timing Student notifications, set with Student.setInstrumentation(...).
+// with none set the student doesn't even read the clock.
+// same shape as the weather example's hook, kept here so this example builds on its own
+public interface IInstrumentation {
+
+    // one observer's update took nanos
+    void onUpdate(Object observer, long nanos);
+
+    // one whole notification: observers were called, in nanos in total
+    void onFanOut(int observers, long nanos);
+
+    // the observer unsubscribed, forget about it
+    default void remove(Object observer) {
+    }
+}
@@ -0,0 +1,66 @@
+package ObeserverPattern;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// IInstrumentation keeping a LatencyHistogram per observer plus one for the fan-out.
+// the histogram of an observer is created on its first update, after that a record is
+// a map lookup and an array increment.
+// observers are held until remove(...) is called for them (Student does it on unsubscribe).
+public class LatencyRecorder implements IInstrumentation {
+
+    private final ConcurrentHashMap<Object, LatencyHistogram> perObserver = new ConcurrentHashMap<>();
+    private final LatencyHistogram fanOut = new LatencyHistogram();
+    private final LongAdder notifications = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+
+    @Override
+    public void onUpdate(Object observer, long nanos) {
+        LatencyHistogram h = perObserver.get(observer);
+        if (h == null) {
+            h = perObserver.computeIfAbsent(observer, k -> new LatencyHistogram());
+        }
+        h.record(nanos);
+        updates.increment();
+    }
+
+    @Override
+    public void onFanOut(int observers, long nanos) {
+        fanOut.record(nanos);
+        notifications.increment();
+    }
+
+    @Override
+    public void remove(Object observer) {
+        perObserver.remove(observer);
+    }
+
+    public long getNotifications() {
+        return notifications.sum();
+    }
+
+    public long getUpdates() {
+        return updates.sum();
+    }
+
+    // "fan-out" first, then one entry per observer (by toString)
+    public Map<String, LatencyHistogram.Snapshot> snapshot() {
+        Map<String, LatencyHistogram.Snapshot> out = new LinkedHashMap<>();
+        out.put("fan-out", fanOut.snapshot());
+        for (Map.Entry<Object, LatencyHistogram> e : perObserver.entrySet()) {
+            out.put(String.valueOf(e.getKey()), e.getValue().snapshot());
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[LATENCY] notifications=" + getNotifications() + " updates=" + getUpdates());
+        for (Map.Entry<String, LatencyHistogram.Snapshot> e : snapshot().entrySet()) {
+            sb.append(System.lineSeparator()).append("  ").append(e.getKey()).append(" -> ").append(e.getValue());
+        }
+        return sb.toString();
+    }
+}
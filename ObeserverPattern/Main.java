@@ -18,6 +18,32 @@ public static void main(String[] args) {
     Student std = new Student(observers);
 
     std.updateCGR(10);
+
+    System.out.println("==================field subscriptions=================");
+
+    //hostel only hears about leave, academics about cgr/specialization, culturals about everything
+    std.updateSpecialization("CSE");
+    std.updateLeave(true);
+    System.out.println("[delivered : ]" + std.getDelivered() + " [skipped : ]" + std.getSkipped());
+
+    System.out.println("==================batch update=================");
+
+    //3 students, each observer is called once with all of them
+    List<Student> batch = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+        batch.add(new Student(observers));
+    }
+    Student.updateCGRs(batch, new int[]{7, 8, 9});
+
+    System.out.println("==================instrumentation=================");
+
+    LatencyRecorder recorder = new LatencyRecorder();
+    std.setInstrumentation(recorder);
+    for (int i = 0; i < 5; i++) {
+        std.updateCGR(i);
+    }
+    std.setInstrumentation(null);
+    System.out.println(recorder);
 }
 
 
@@ -1,33 +1,195 @@
 package ObeserverPattern;
 
-
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 public class Student {
     int cgr;
     String specalization;
-    List<StudentObserver> studentSubscribers;
+    boolean onLeave;
+    // copy on write arrays, add/remove build new ones (under the lock) and swap them in,
+    // notify loops over the array it read: no iterator, no lock, and a concurrent add/remove
+    // doesn't change what that loop sees. never written in place
+    volatile StudentObserver[] studentSubscribers = new StudentObserver[0];
+    // the same observers again, one array per field they are interested in, by field.ordinal()
+    private volatile StudentObserver[][] byField = new StudentObserver[StudentField.values().length][0];
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private volatile IInstrumentation instrumentation;
 
     public Student(List<StudentObserver> list) {
-        this.studentSubscribers = list;
+        for (StudentObserver sub : list) {
+            addSubscriber(sub);
+        }
     }
 
 
-    public void addSubscriber(StudentObserver newSubscriber) {
-        studentSubscribers.add(newSubscriber);
+    public synchronized void addSubscriber(StudentObserver newSubscriber) {
+        if (indexOf(studentSubscribers, newSubscriber) >= 0) {
+            return;
+        }
+        StudentObserver[][] next = byField.clone();
+        for (StudentField field : newSubscriber.interests()) {
+            next[field.ordinal()] = with(next[field.ordinal()], newSubscriber);
+        }
+        byField = next;
+        studentSubscribers = with(studentSubscribers, newSubscriber);
+    }
+
+    public synchronized void removeSubscriber(StudentObserver subscriber) {
+        if (indexOf(studentSubscribers, subscriber) < 0) {
+            return;
+        }
+        studentSubscribers = without(studentSubscribers, subscriber);
+        StudentObserver[][] next = byField.clone();
+        for (int f = 0; f < next.length; f++) {
+            next[f] = without(next[f], subscriber);
+        }
+        byField = next;
+        IInstrumentation in = instrumentation;
+        if (in != null) {
+            in.remove(subscriber);
+        }
+    }
+
+    // e.g. new LatencyRecorder(), null turns it off
+    public void setInstrumentation(IInstrumentation instrumentation) {
+        this.instrumentation=instrumentation;
     }
 
 
     public void updateCGR(int cgr) {
         this.cgr=cgr;
         System.out.println("[UPDATING CGR - STUDNET data update!]" + this.cgr);
-        notifySub();
+        notifySub(StudentField.CGR);
+    }
+
+    public void updateSpecialization(String specalization) {
+        this.specalization=specalization;
+        System.out.println("[UPDATING SPECIALIZATION - STUDNET data update!]" + this.specalization);
+        notifySub(StudentField.SPECIALIZATION);
     }
 
+    public void updateLeave(boolean onLeave) {
+        this.onLeave=onLeave;
+        System.out.println("[UPDATING LEAVE - STUDNET data update!]" + this.onLeave);
+        notifySub(StudentField.LEAVE);
+    }
+
+    // semester end: sets cgrs[i] on students[i] and then calls every interested observer once,
+    // with all of its students in one list (in the order given), instead of once per student.
+    // a student listed twice is delivered twice
+    public static void updateCGRs(List<Student> students, int[] cgrs) {
+        updateCGRs(students, cgrs, null);
+    }
+
+    // same, with every observer's batch callback timed into in (unless null)
+    public static void updateCGRs(List<Student> students, int[] cgrs, IInstrumentation in) {
+        if (students.size() != cgrs.length) {
+            throw new IllegalArgumentException("students and cgrs differ in size : " + students.size() + " vs " + cgrs.length);
+        }
+        System.out.println("[UPDATING CGR OF " + students.size() + " STUDENTS!]");
+        Map<StudentObserver, List<Student>> perObserver = new IdentityHashMap<>();
+        for (int i = 0; i < cgrs.length; i++) {
+            Student std = students.get(i);
+            std.cgr = cgrs[i];
+            StudentObserver[] subs = std.byField[StudentField.CGR.ordinal()];
+            for (StudentObserver sub : subs) {
+                perObserver.computeIfAbsent(sub, k -> new ArrayList<>()).add(std);
+            }
+            std.delivered.add(subs.length);
+            std.skipped.add(Math.max(0, std.studentSubscribers.length - subs.length));
+        }
+        long start = System.nanoTime();
+        long t0 = start;
+        for (Map.Entry<StudentObserver, List<Student>> e : perObserver.entrySet()) {
+            e.getKey().updateBatch(e.getValue());
+            if (in != null) {
+                long t1 = System.nanoTime();
+                in.onUpdate(e.getKey(), t1 - t0);
+                t0 = t1;
+            }
+        }
+        if (in != null) {
+            in.onFanOut(perObserver.size(), t0 - start);
+        }
+    }
+
+    // everyone, whatever they subscribed to
     public void notifySub() {
         System.out.println("[UPDATING SUBSCRIBERS!]");
-        for(StudentObserver sub :  this.studentSubscribers) {
+        delivered.add(deliver(this.studentSubscribers));
+    }
+
+    // only the observers interested in the field that changed
+    public void notifySub(StudentField field) {
+        System.out.println("[UPDATING SUBSCRIBERS OF " + field + "!]");
+        int n = deliver(byField[field.ordinal()]);
+        delivered.add(n);
+        skipped.add(Math.max(0, studentSubscribers.length - n));
+    }
+
+    // returns how many were called
+    private int deliver(StudentObserver[] subs) {
+        IInstrumentation in = instrumentation;
+        if (in == null) {
+            for(StudentObserver sub : subs) {
+                sub.update(this);
+            }
+            return subs.length;
+        }
+        int n = 0;
+        long start = System.nanoTime();
+        long t0 = start;
+        for(StudentObserver sub : subs) {
             sub.update(this);
+            long t1 = System.nanoTime();
+            in.onUpdate(sub, t1 - t0);
+            t0 = t1;
+            n++;
         }
-    }    
+        in.onFanOut(n, t0 - start);
+        return n;
+    }
+
+    private static StudentObserver[] with(StudentObserver[] subs, StudentObserver sub) {
+        if (indexOf(subs, sub) >= 0) {
+            return subs;
+        }
+        StudentObserver[] next = Arrays.copyOf(subs, subs.length + 1);
+        next[subs.length] = sub;
+        return next;
+    }
+
+    private static StudentObserver[] without(StudentObserver[] subs, StudentObserver sub) {
+        int i = indexOf(subs, sub);
+        if (i < 0) {
+            return subs;
+        }
+        StudentObserver[] next = Arrays.copyOf(subs, subs.length - 1);
+        System.arraycopy(subs, i + 1, next, i, subs.length - i - 1);
+        return next;
+    }
+
+    private static int indexOf(StudentObserver[] subs, StudentObserver sub) {
+        for (int i = 0; i < subs.length; i++) {
+            if (subs[i] == sub) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
 }
@@ -0,0 +1,55 @@
+package ObeserverPattern;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+// semester end: cgr of many students, one updateCGR per student vs updateCGRs in batches.
+// stdout is muted while timing, the observers print on every call.
+// run: java ObeserverPattern.StudentBatchBenchmark [students]
+public class StudentBatchBenchmark {
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        List<StudentObserver> observers = new ArrayList<>();
+        observers.add(new AcademicObserver());
+        observers.add(new CulturalActivityObserver());
+        observers.add(new HostelObserver());
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            students.add(new Student(observers));
+        }
+        int[] cgrs = new int[n];
+        for (int i = 0; i < n; i++) {
+            cgrs[i] = i % 10;
+        }
+
+        PrintStream out = System.out;
+        PrintStream muted = new PrintStream(OutputStream.nullOutputStream());
+        for (int round = 0; round < 3; round++) {
+            System.setOut(muted);
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                students.get(i).updateCGR(cgrs[i]);
+            }
+            long oneByOne = System.nanoTime() - start;
+            System.setOut(out);
+            out.printf("[ROUND %d] one by one      : %.0f k students/s%n", round, n / (oneByOne / 1e6));
+
+            for (int batchSize : new int[]{10, 1_000, 100_000}) {
+                System.setOut(muted);
+                start = System.nanoTime();
+                for (int from = 0; from < n; from += batchSize) {
+                    int to = Math.min(n, from + batchSize);
+                    int[] part = new int[to - from];
+                    System.arraycopy(cgrs, from, part, 0, part.length);
+                    Student.updateCGRs(students.subList(from, to), part);
+                }
+                long batched = System.nanoTime() - start;
+                System.setOut(out);
+                out.printf("[ROUND %d] batches of %-6d: %.0f k students/s%n", round, batchSize, n / (batched / 1e6));
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ObeserverPattern;
+
+// the parts of a Student an observer can subscribe to
+public enum StudentField {
+    CGR,
+    SPECIALIZATION,
+    LEAVE
+}
@@ -1,6 +1,24 @@
 package ObeserverPattern;
 
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 public interface StudentObserver {
     void update(Student student);
+
+    // fields this observer wants to hear about, read once when it subscribes.
+    // everything by default, so existing observers keep getting every update
+    default Set<StudentField> interests() {
+        return EnumSet.allOf(StudentField.class);
+    }
+
+    // many students changed at once (Student.updateCGRs), called once per batch.
+    // one by one by default, override it to do the work in bulk
+    default void updateBatch(List<Student> students) {
+        for (Student std : students) {
+            update(std);
+        }
+    }
     
 }
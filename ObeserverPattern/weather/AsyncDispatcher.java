@@ -0,0 +1,180 @@
+package weather;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// notifications are queued and run on a thread pool, so setMesurements returns right away
+// and a slow display only slows itself down.
+// every observer has its own bounded queue, when it is full (or the pool rejects the task)
+// the notification is dropped and counted.
+//   PER_OBSERVER -> an observer gets its updates one at a time, in order
+//   UNORDERED    -> updates of one observer may run in parallel / out of order (more throughput)
+public class AsyncDispatcher implements IDispatcher {
+
+    public enum Ordering {
+        PER_OBSERVER,
+        UNORDERED
+    }
+
+    private final ExecutorService executor;
+    // only an executor made here is shut down by close(), a passed in one may be shared
+    private final boolean ownsExecutor;
+    private final Ordering ordering;
+    private final int queueCapacity;
+    private final Map<IObserver, ObserverQueue> queues = new ConcurrentHashMap<>();
+
+    // the caller keeps owning executor, close() leaves it running
+    public AsyncDispatcher(ExecutorService executor, Ordering ordering, int queueCapacity) {
+        this(executor, false, ordering, queueCapacity);
+    }
+
+    public AsyncDispatcher(Ordering ordering, int queueCapacity) {
+        this(Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread t = new Thread(r, "weather-dispatch");
+            t.setDaemon(true);
+            return t;
+        }), true, ordering, queueCapacity);
+    }
+
+    private AsyncDispatcher(ExecutorService executor, boolean ownsExecutor, Ordering ordering, int queueCapacity) {
+        this.executor=executor;
+        this.ownsExecutor=ownsExecutor;
+        this.ordering=ordering;
+        this.queueCapacity=queueCapacity;
+    }
+
+    @Override
+    public void dispatch(IObserver ob, Measurement m) {
+        ObserverQueue q = queues.get(ob);
+        if (q == null || q.removed) {
+            // first update, or subscribed again: a queue whose drainer is still running is
+            // taken back instead of starting a second one, so PER_OBSERVER order holds
+            q = queues.compute(ob, (k, old) -> old == null ? new ObserverQueue(k) : old.revive());
+        }
+        q.offer(m);
+    }
+
+    // pending updates are dropped, a drain in progress stops after the update it is running.
+    // the queue stays in the map until then, see dispatch
+    @Override
+    public void remove(IObserver ob) {
+        queues.computeIfPresent(ob, (k, q) -> {
+            q.removed = true;
+            if (q.pending != null) {
+                q.pending.clear();
+            }
+            return q.draining.get() ? q : null;
+        });
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    public long getDropped(IObserver ob) {
+        ObserverQueue q = queues.get(ob);
+        return q == null ? 0 : q.dropped.get();
+    }
+
+    public long getTotalDropped() {
+        long total = 0;
+        for (ObserverQueue q : queues.values()) {
+            total += q.dropped.get();
+        }
+        return total;
+    }
+
+    private class ObserverQueue {
+        final IObserver ob;
+        final AtomicLong dropped = new AtomicLong();
+        // PER_OBSERVER: pending updates, drained by at most one pool thread at a time
+        final BlockingQueue<Measurement> pending;
+        final AtomicBoolean draining = new AtomicBoolean();
+        // UNORDERED: updates handed to the pool and not finished yet
+        final AtomicInteger inFlight = new AtomicInteger();
+        // unsubscribed, only changed inside a queues.compute so it can't race with the drainer leaving
+        volatile boolean removed;
+
+        ObserverQueue(IObserver ob) {
+            this.ob=ob;
+            this.pending = ordering == Ordering.PER_OBSERVER ? new ArrayBlockingQueue<>(queueCapacity) : null;
+        }
+
+        ObserverQueue revive() {
+            removed = false;
+            return this;
+        }
+
+        void offer(Measurement m) {
+            if (ordering == Ordering.UNORDERED) {
+                if (inFlight.incrementAndGet() > queueCapacity) {
+                    inFlight.decrementAndGet();
+                    dropped.incrementAndGet();
+                    return;
+                }
+                try {
+                    executor.execute(() -> {
+                        try {
+                            run(m);
+                        } finally {
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.decrementAndGet();
+                    dropped.incrementAndGet();
+                }
+                return;
+            }
+            if (!pending.offer(m)) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // nobody will drain what is queued, drop it so the next offer can try again
+                    while (pending.poll() != null) {
+                        dropped.incrementAndGet();
+                    }
+                    draining.set(false);
+                }
+            }
+        }
+
+        void drain() {
+            do {
+                Measurement m;
+                while (!removed && (m = pending.poll()) != null) {
+                    run(m);
+                }
+                draining.set(false);
+                // something may have come in after the last poll but before the flag was cleared
+            } while (!removed && !pending.isEmpty() && draining.compareAndSet(false, true));
+            if (removed) {
+                // unsubscribed while running, leave the map unless subscribed again meanwhile
+                queues.computeIfPresent(ob, (k, q) -> q == this && removed && !draining.get() ? null : q);
+            }
+        }
+
+        void run(Measurement m) {
+            try {
+                ob.update(m);
+            } catch (RuntimeException e) {
+                System.out.println("[observer failed : ] " + ob + " " + e);
+            }
+        }
+    }
+}
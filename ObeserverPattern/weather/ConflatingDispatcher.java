@@ -0,0 +1,125 @@
+package weather;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// for fast sensor feeds where a display only cares about the latest value.
+// while an observer has an update scheduled or running, new measurements don't queue up,
+// they replace each other and the observer only gets the newest one when it runs.
+// maxUpdatesPerSec caps how often one observer is called, 0 means no cap.
+public class ConflatingDispatcher implements IDispatcher {
+
+    private final ScheduledExecutorService scheduler;
+    // only a scheduler made here is shut down by close(), a passed in one may be shared
+    private final boolean ownsScheduler;
+    private final long minIntervalNanos;
+    private final Map<IObserver, ObserverState> states = new ConcurrentHashMap<>();
+
+    // the caller keeps owning scheduler, close() leaves it running
+    public ConflatingDispatcher(ScheduledExecutorService scheduler, double maxUpdatesPerSec) {
+        this(scheduler, false, maxUpdatesPerSec);
+    }
+
+    public ConflatingDispatcher(double maxUpdatesPerSec) {
+        this(Executors.newScheduledThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+            Thread t = new Thread(r, "weather-conflate");
+            t.setDaemon(true);
+            return t;
+        }), true, maxUpdatesPerSec);
+    }
+
+    private ConflatingDispatcher(ScheduledExecutorService scheduler, boolean ownsScheduler, double maxUpdatesPerSec) {
+        this.scheduler=scheduler;
+        this.ownsScheduler=ownsScheduler;
+        this.minIntervalNanos = maxUpdatesPerSec <= 0 ? 0 : (long) (1_000_000_000L / maxUpdatesPerSec);
+    }
+
+    @Override
+    public void dispatch(IObserver ob, Measurement m) {
+        states.computeIfAbsent(ob, ObserverState::new).notified(m);
+    }
+
+    @Override
+    public void remove(IObserver ob) {
+        states.remove(ob);
+    }
+
+    @Override
+    public void close() {
+        if (ownsScheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    // measurements that never reached the observer on their own (includes any still pending)
+    public long getConflated(IObserver ob) {
+        ObserverState s = states.get(ob);
+        return s == null ? 0 : s.notifications.get() - s.delivered.get();
+    }
+
+    public long getDelivered(IObserver ob) {
+        ObserverState s = states.get(ob);
+        return s == null ? 0 : s.delivered.get();
+    }
+
+    public long getTotalConflated() {
+        long total = 0;
+        for (ObserverState s : states.values()) {
+            total += s.notifications.get() - s.delivered.get();
+        }
+        return total;
+    }
+
+    private class ObserverState {
+        final IObserver ob;
+        final AtomicLong notifications = new AtomicLong();
+        final AtomicLong delivered = new AtomicLong();
+        final AtomicReference<Measurement> latest = new AtomicReference<>();
+        // true from scheduling an update until it has finished, so at most one runs at a time
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile long lastDelivery = System.nanoTime() - minIntervalNanos;
+
+        ObserverState(IObserver ob) {
+            this.ob=ob;
+        }
+
+        void notified(Measurement m) {
+            latest.set(m);
+            notifications.incrementAndGet();
+            if (scheduled.compareAndSet(false, true)) {
+                schedule();
+            }
+        }
+
+        void schedule() {
+            long delay = lastDelivery + minIntervalNanos - System.nanoTime();
+            scheduler.schedule(this::deliver, Math.max(0, delay), TimeUnit.NANOSECONDS);
+        }
+
+        // takes the pending measurement, so one that arrives at any point after this
+        // is still in latest and gets the next update, never delivered twice
+        void deliver() {
+            Measurement m = latest.getAndSet(null);
+            if (m != null) {
+                lastDelivery = System.nanoTime();
+                try {
+                    ob.update(m);
+                } catch (RuntimeException e) {
+                    System.out.println("[observer failed : ] " + ob + " " + e);
+                }
+                delivered.incrementAndGet();
+            }
+            scheduled.set(false);
+            // newer measurements came in while this one ran, one more update for all of them
+            if (latest.get() != null && scheduled.compareAndSet(false, true)) {
+                schedule();
+            }
+        }
+    }
+}
@@ -12,15 +12,31 @@ public class DisplayForecastObv implements IObserver {
         this.weatherData.registerSubscriber(this);
     }
 
+    // weak = true: wd doesn't keep this display alive, no need to remove it when done
+    public DisplayForecastObv(WeatherData wd, boolean weak) {
+        this.weatherData=wd;
+        if (weak) {
+            wd.registerWeakSubscriber(this);
+        } else {
+            wd.registerSubscriber(this);
+        }
+    }
+
     @Override
     public void update() {
+        update(weatherData.getMeasurement());
+    }
+
+    // push, humidity and pressure come from the same reading
+    @Override
+    public void update(Measurement m) {
 
         System.out.println("-----------[Previous Values of display forecast]---------");
         System.out.println("[Humidity is : ]" + this.humidity);
         System.out.println("[Pressure is : ]" + this.pressure);
 
-        this.humidity = weatherData.getHumidity();
-        this.pressure = weatherData.getPressure();
+        this.humidity = m.getHumidity();
+        this.pressure = m.getPressure();
        
         display();
 
@@ -13,15 +13,30 @@ public class DisplaycurrentConditionObv  implements IObserver{
         //regirster to the weather data sub
     }
 
+    // weak = true: wd doesn't keep this display alive, no need to remove it when done
+    public DisplaycurrentConditionObv(WeatherData wd, boolean weak) {
+        this.weatherData=wd;
+        if (weak) {
+            wd.registerWeakSubscriber(this);
+        } else {
+            wd.registerSubscriber(this);
+        }
+    }
+
     @Override
     public void update() {
+        update(weatherData.getMeasurement());
+    }
+
+    @Override
+    public void update(Measurement m) {
 
          System.out.println("----------[Previous Values]----------");
         System.out.println("[pressure is : ]" + this.pressure);
         System.out.println("[Temp is : ]" + this.temp);
 
-        this.temp= weatherData.getTemp();
-        this.pressure=weatherData.getPressure();
+        this.temp= m.getTemp();
+        this.pressure=m.getPressure();
         
         display();
     }
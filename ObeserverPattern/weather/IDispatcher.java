@@ -0,0 +1,14 @@
+package weather;
+
+// how WeatherData hands a notification to one observer.
+// SyncDispatcher calls it right away (the classic way), AsyncDispatcher queues it.
+public interface IDispatcher {
+    void dispatch(IObserver ob, Measurement m);
+
+    // the observer was removed from the subject, forget anything kept for it
+    default void remove(IObserver ob) {
+    }
+
+    default void close() {
+    }
+}
@@ -0,0 +1,16 @@
+package weather;
+
+// hook for timing notifications, set on a subject with setInstrumentation(...).
+// with none set the subject doesn't even read the clock.
+public interface IInstrumentation {
+
+    // one observer's update (or hand off to the dispatcher) took nanos
+    void onUpdate(Object observer, long nanos);
+
+    // one whole notification: observers were called, in nanos in total
+    void onFanOut(int observers, long nanos);
+
+    // the observer unsubscribed, forget about it
+    default void remove(Object observer) {
+    }
+}
@@ -0,0 +1,8 @@
+package weather;
+
+// allocation free consumer of the RingBufferBus, the values are passed as primitives.
+// endOfBatch is true for the last event the consumer could see in one go,
+// a good point to flush/redraw instead of doing it per event.
+public interface IMeasurementHandler {
+    void onMeasurement(long seq, float temp, float pressure, float humidity, boolean endOfBatch);
+}
@@ -1,5 +1,12 @@
 package weather;
 
 public interface IObserver {
+    // pull: the observer asks the subject for the values it needs
     void update();
+
+    // push: the values come with the call, all three from the same reading.
+    // observers that don't override it keep working the pull way
+    default void update(Measurement m) {
+        update();
+    }
 }
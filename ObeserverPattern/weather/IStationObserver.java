@@ -0,0 +1,7 @@
+package weather;
+
+// subscriber of the StationHub, called on the writer thread of the station's shard.
+// primitives only, nothing is allocated to notify it
+public interface IStationObserver {
+    void update(int station, long seq, float temp, float pressure, float humidity);
+}
@@ -0,0 +1,97 @@
+package weather;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// log-linear histogram of nanosecond timings, the HdrHistogram idea in small:
+// values under 8 get their own bucket, above that every power of two is split into 8 buckets,
+// so any value is off by at most 1/8 (12.5%) and the whole range of a long fits in 488 counters.
+// recording is one array increment, no allocation, safe from many threads.
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long nanos) {
+        counts.incrementAndGet(bucket(Math.max(0, nanos)));
+    }
+
+    static int bucket(long v) {
+        if (v < SUB) {
+            return (int) v;
+        }
+        int mag = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) (v >>> (mag - SUB_BITS)) & (SUB - 1);
+        return (mag - SUB_BITS + 1) * SUB + sub;
+    }
+
+    // biggest value that lands in bucket i
+    static long upperBound(int i) {
+        if (i < SUB) {
+            return i;
+        }
+        int mag = i / SUB + SUB_BITS - 1;
+        long lower = (long) (SUB + i % SUB) << (mag - SUB_BITS);
+        return lower + (1L << (mag - SUB_BITS)) - 1;
+    }
+
+    // copy of the counts at this moment, the recording goes on
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new Snapshot(copy);
+    }
+
+    public static class Snapshot {
+        private final long[] counts;
+        private final long total;
+
+        Snapshot(long[] counts) {
+            this.counts=counts;
+            long t = 0;
+            for (long c : counts) {
+                t += c;
+            }
+            this.total = t;
+        }
+
+        public long getCount() {
+            return total;
+        }
+
+        // p in 0..100, the value p% of the recordings are at or below (within 12.5%)
+        public long percentile(double p) {
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * p / 100.0));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBound(i);
+                }
+            }
+            return upperBound(counts.length - 1);
+        }
+
+        public long getMax() {
+            for (int i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] != 0) {
+                    return upperBound(i);
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + total + " p50=" + percentile(50) + "ns p99=" + percentile(99)
+                    + "ns p99.9=" + percentile(99.9) + "ns max=" + getMax() + "ns";
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package weather;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException, IOException {
 
         WeatherData wd = new WeatherData(7,8,9);
         DisplaycurrentConditionObv currentConditions = new DisplaycurrentConditionObv(wd);
@@ -9,7 +13,124 @@ public class Main {
         wd.setMesurements(10, 10, 10);
         wd.setMesurements(18, 19, 20);
 
+        System.out.println("==================async dispatch=================");
+
+        //queue of 2 per display, the sensor loop never waits on them
+        AsyncDispatcher async = new AsyncDispatcher(AsyncDispatcher.Ordering.PER_OBSERVER, 2);
+        wd.setDispatcher(async);
+        for (int i = 0; i < 5; i++) {
+            wd.setMesurements(20 + i, 20 + i, 20 + i);
+        }
+        Thread.sleep(200);
+        System.out.println("[dropped notifications : ]" + async.getTotalDropped());
+
+        System.out.println("==================conflating dispatch=================");
+
+        //100 measurements in a burst, each display is called at most 20 times/sec
+        //and always sees the newest values
+        ConflatingDispatcher conflating = new ConflatingDispatcher(20);
+        wd.setDispatcher(conflating);
+        for (int i = 0; i < 100; i++) {
+            wd.setMesurements(30 + i, 30 + i, 30 + i);
+        }
+        Thread.sleep(200);
+        System.out.println("[conflated notifications : ]" + conflating.getTotalConflated());
+        wd.setDispatcher(new SyncDispatcher());
+
+        System.out.println("==================instrumentation=================");
+
+        //per display update time + the whole notify, read back as one snapshot
+        LatencyRecorder recorder = new LatencyRecorder();
+        wd.setInstrumentation(recorder);
+        for (int i = 0; i < 5; i++) {
+            wd.setMesurements(50 + i, 50 + i, 50 + i);
+        }
+        wd.setInstrumentation(null);
+        System.out.println(recorder);
+
+        System.out.println("==================rolling stats=================");
+
+        //last 3 readings only, however many come in
+        RollingStatsObserver rolling = RollingStatsObserver.lastN(wd, 3);
+        for (int i = 0; i < 5; i++) {
+            wd.setMesurements(60 + i, 900 + i, 70 - i);
+        }
+        rolling.display();
+        wd.removeSubscriber(rolling);
+
+        System.out.println("==================weak subscribers=================");
+
+        //the weak display is only referenced by this local, once it's gone wd lets go of it too
+        DisplayForecastObv shortLived = new DisplayForecastObv(wd, true);
+        System.out.println("[subs : ]" + wd.getSubscriberCount());
+        shortLived = null;
+        System.gc();
+        Thread.sleep(100);
+        wd.setMesurements(40, 40, 40);
+        System.out.println("[subs after gc : ]" + wd.getSubscriberCount());
+
+        System.out.println("==================station hub=================");
+
+        //1000 stations in 2 shards, one writer thread per shard
+        StationHub hub = new StationHub(1000, 2);
+        hub.subscribe(42, (station, seq, t, p, h) -> System.out.println("[STATION " + station + "]-> temp " + t));
+        hub.subscribe(new int[]{10, 900}, (station, seq, t, p, h) -> System.out.println("[GROUP]-> station " + station + " seq " + seq));
+        Thread[] writers = new Thread[hub.getShardCnt()];
+        for (int i = 0; i < writers.length; i++) {
+            StationHub.Shard shard = hub.shard(i);
+            writers[i] = new Thread(() -> {
+                for (int s = shard.getFrom(); s < shard.getTo(); s++) {
+                    shard.setMesurements(s, s / 10f, 1000, 50);
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread w : writers) {
+            w.join();
+        }
+        System.out.println("[station 500 : ]" + hub.read(500).getTemp());
+
+        System.out.println("==================measurement log=================");
+
+        //a display that comes up late catches up from the log, then goes live
+        Path logFile = Files.createTempFile("weather", ".log");
+        try (MeasurementLog log = new MeasurementLog(logFile)) {
+            WeatherData logged = new WeatherData(0, 0, 0);
+            logged.setLog(log);
+            for (int i = 0; i < 3; i++) {
+                logged.setMesurements(70 + i, 70 + i, 70 + i);
+            }
+            System.out.println("[logged readings : ]" + log.size());
+            logged.replayAndSubscribe(new IObserver() {
+                @Override
+                public void update() {
+                }
+
+                @Override
+                public void update(Measurement m) {
+                    System.out.println("[REPLAY/LIVE]-> seq " + m.getSeq() + " temp " + m.getTemp());
+                }
+            }, 1);
+            logged.setMesurements(80, 80, 80);
+        }
+        Files.deleteIfExists(logFile);
+
+        System.out.println("==================ring buffer bus=================");
 
+        //each subscriber reads the ring on its own thread, the producer only writes floats
+        RingBufferBus bus = new RingBufferBus(1024);
+        bus.subscribe((seq, t, p, h, endOfBatch) -> {
+            if (endOfBatch) {
+                System.out.println("[RING]-> up to seq " + seq + " temp " + t);
+            }
+        });
+        for (int i = 0; i < 1000; i++) {
+            bus.setMesurements(i, i, i);
+        }
+        while (!bus.isDrained()) {
+            Thread.sleep(1);
+        }
+        bus.close();
 
         
     }
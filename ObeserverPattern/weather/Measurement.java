@@ -0,0 +1,40 @@
+package weather;
+
+// one reading of all three values, taken together.
+// immutable, so it can be handed to any number of observers / threads as is.
+// WeatherData makes one per setMesurements call, shared by every observer.
+public final class Measurement {
+    private final long seq;
+    private final float temp;
+    private final float pressure;
+    private final float humidity;
+
+    public Measurement(long seq, float temp, float pressure, float humidity) {
+        this.seq = seq;
+        this.temp = temp;
+        this.pressure = pressure;
+        this.humidity = humidity;
+    }
+
+    // 0 for the initial values, +1 for every setMesurements
+    public long getSeq() {
+        return this.seq;
+    }
+
+    public float getTemp() {
+        return this.temp;
+    }
+
+    public float getPressure() {
+        return this.pressure;
+    }
+
+    public float getHumidity() {
+        return this.humidity;
+    }
+
+    @Override
+    public String toString() {
+        return "[#" + seq + " temp=" + temp + " pressure=" + pressure + " humidity=" + humidity + "]";
+    }
+}
@@ -0,0 +1,133 @@
+package weather;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// append only log of measurements, memory mapped.
+// every record is 24 bytes: seq (long), temp, pressure, humidity (float), check (int),
+// written straight into the mapped file, so an append creates no garbage.
+// records are addressed by their index (0 = first one ever written), that's the replay offset.
+// on open the file is scanned up to the first record whose check doesn't match (never
+// written, or torn by a crash), appends continue from there.
+// appends are not forced to disk one by one, call force() for that.
+public class MeasurementLog implements AutoCloseable {
+
+    static final int RECORD = 24;
+    // the file grows by this many records at a time
+    static final int CHUNK_RECORDS = 1 << 16;
+    // replay maps this much at a time
+    static final long READ_WINDOW = (long) RECORD * (1 << 20);
+    private static final int SALT = 0x5EED1E55;
+
+    private final FileChannel channel;
+    private MappedByteBuffer writeChunk;
+    private long chunkStart = -1; // first record of writeChunk
+    private volatile long size; // records fully written
+
+    public MeasurementLog(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.size = recover();
+    }
+
+    private long recover() throws IOException {
+        long records = channel.size() / RECORD;
+        long n = 0;
+        for (long from = 0; from < records; from += READ_WINDOW / RECORD) {
+            long cnt = Math.min(READ_WINDOW / RECORD, records - from);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, from * RECORD, cnt * RECORD);
+            for (int i = 0; i < cnt; i++) {
+                int at = i * RECORD;
+                if (check(window.getLong(at), window.getFloat(at + 8), window.getFloat(at + 12), window.getFloat(at + 16)) != window.getInt(at + 20)) {
+                    return n;
+                }
+                n++;
+            }
+        }
+        return n;
+    }
+
+    // an all zero record (file grown but never written) doesn't pass
+    private static int check(long seq, float t, float p, float h) {
+        return SALT ^ (int) seq ^ (int) (seq >>> 32) ^ Float.floatToRawIntBits(t)
+                ^ Integer.rotateLeft(Float.floatToRawIntBits(p), 7) ^ Integer.rotateLeft(Float.floatToRawIntBits(h), 13);
+    }
+
+    // returns the record index
+    public synchronized long append(long seq, float t, float p, float h) {
+        long n = size;
+        if (n - chunkStart >= CHUNK_RECORDS || chunkStart < 0) {
+            mapChunk(n);
+        }
+        int at = (int) (n - chunkStart) * RECORD;
+        writeChunk.putLong(at, seq);
+        writeChunk.putFloat(at + 8, t);
+        writeChunk.putFloat(at + 12, p);
+        writeChunk.putFloat(at + 16, h);
+        writeChunk.putInt(at + 20, check(seq, t, p, h));
+        size = n + 1; // volatile, replay on another thread sees the whole record
+        return n;
+    }
+
+    public long append(Measurement m) {
+        return append(m.getSeq(), m.getTemp(), m.getPressure(), m.getHumidity());
+    }
+
+    private void mapChunk(long from) {
+        try {
+            // mapping past the end grows the file
+            writeChunk = channel.map(FileChannel.MapMode.READ_WRITE, from * RECORD, (long) CHUNK_RECORDS * RECORD);
+            chunkStart = from;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    // the newest record, null when the log is empty
+    public Measurement last() throws IOException {
+        long n = size;
+        if (n == 0) {
+            return null;
+        }
+        Measurement[] out = new Measurement[1];
+        replay(n - 1, n, (seq, t, p, h, end) -> out[0] = new Measurement(seq, t, p, h));
+        return out[0];
+    }
+
+    // hands records [from, to) to the handler in order, straight from the mapped file.
+    // returns to, the offset to continue from
+    public long replay(long from, long to, IMeasurementHandler handler) throws IOException {
+        to = Math.min(to, size);
+        long windowRecords = READ_WINDOW / RECORD;
+        for (long start = from; start < to; start += windowRecords) {
+            long cnt = Math.min(windowRecords, to - start);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, start * RECORD, cnt * RECORD);
+            for (int i = 0; i < cnt; i++) {
+                int at = i * RECORD;
+                handler.onMeasurement(window.getLong(at), window.getFloat(at + 8), window.getFloat(at + 12),
+                        window.getFloat(at + 16), start + i == to - 1);
+            }
+        }
+        return Math.max(from, to);
+    }
+
+    // everything appended so far is on disk after this
+    public synchronized void force() {
+        if (writeChunk != null) {
+            writeChunk.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        channel.close();
+    }
+}
@@ -0,0 +1,91 @@
+package weather;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// fan-out throughput: the plain ArrayList loop (what WeatherData.notifySub does, minus the
+// println and the dispatcher) vs the RingBufferBus with handler and IObserver subscribers.
+// no JMH in this repo, so it is a plain warmed up main, run it a few times.
+// run: java weather.RingBufferBenchmark [events] [observers]
+public class RingBufferBenchmark {
+
+    // just enough work that the JIT can't drop the call
+    static class Counter implements IObserver, IMeasurementHandler {
+        volatile long seen;
+        long local;
+        float sum;
+
+        @Override
+        public void update() {
+        }
+
+        @Override
+        public void update(Measurement m) {
+            sum += m.getTemp();
+            seen = ++local;
+        }
+
+        @Override
+        public void onMeasurement(long seq, float temp, float pressure, float humidity, boolean endOfBatch) {
+            sum += temp;
+            local++;
+            if (endOfBatch) {
+                seen = local; // one volatile write per batch, not per event
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int observers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        for (int round = 0; round < 3; round++) {
+            System.out.printf("[ROUND %d] arraylist loop : %.1f M events/s%n", round, arrayListLoop(events, observers));
+            System.out.printf("[ROUND %d] ring, handlers : %.1f M events/s%n", round, ring(events, observers, true));
+            System.out.printf("[ROUND %d] ring, observers: %.1f M events/s%n", round, ring(events, observers, false));
+        }
+    }
+
+    // the current way: new Measurement per event, every observer called on the producer thread
+    static double arrayListLoop(int events, int observers) {
+        List<IObserver> subs = new ArrayList<>();
+        for (int i = 0; i < observers; i++) {
+            subs.add(new Counter());
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            Measurement m = new Measurement(i, i, i, i);
+            for (IObserver ob : subs) {
+                ob.update(m);
+            }
+        }
+        return events / ((System.nanoTime() - start) / 1000.0);
+    }
+
+    static double ring(int events, int observers, boolean handlers) throws InterruptedException {
+        RingBufferBus bus = new RingBufferBus(1 << 14);
+        List<Counter> counters = new ArrayList<>();
+        for (int i = 0; i < observers; i++) {
+            Counter c = new Counter();
+            counters.add(c);
+            if (handlers) {
+                bus.subscribe(c);
+            } else {
+                bus.registerSubscriber(c);
+            }
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            bus.setMesurements(i, i, i);
+        }
+        bus.notifySub();
+        for (Counter c : counters) {
+            while (c.seen < events) {
+                Thread.onSpinWait();
+            }
+        }
+        double rate = events / ((System.nanoTime() - start) / 1000.0);
+        bus.close();
+        return rate;
+    }
+}
@@ -0,0 +1,198 @@
+package weather;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// disruptor style subject for very high event rates.
+// the ring is allocated once: one float column per value, slot = seq & (capacity - 1).
+// a producer claims the next sequence, writes the floats in place and then marks the slot
+// published. every subscriber runs on its own thread with its own sequence, it reads all
+// published slots it hasn't seen yet as one batch. producers wait (never overwrite) when the
+// slowest subscriber is a full ring behind.
+// nothing is allocated per event for IMeasurementHandler subscribers, IObserver subscribers
+// get a Measurement built for them (one per event per observer).
+public class RingBufferBus implements ISubject {
+
+    private final int mask;
+    private final float[] temp;
+    private final float[] pressure;
+    private final float[] humidity;
+    private final AtomicLongArray published; // slot -> seq written there, -1 at the start
+
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long gatingCache = -1; // min consumer sequence seen last time
+    private final SubscriberRegistry<Consumer> consumers = new SubscriberRegistry<>(new Consumer[0]);
+
+    public RingBufferBus(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of 2 : " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.temp = new float[capacity];
+        this.pressure = new float[capacity];
+        this.humidity = new float[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    // producer side, safe from many threads
+    public long setMesurements(float t, float p, float h) {
+        long seq = claimed.getAndIncrement();
+        long wrapPoint = seq - (mask + 1);
+        if (wrapPoint > gatingCache) {
+            waitForConsumers(wrapPoint);
+        }
+        int slot = (int) seq & mask;
+        temp[slot] = t;
+        pressure[slot] = p;
+        humidity[slot] = h;
+        published.lazySet(slot, seq); // release: the floats above are visible before this
+        return seq;
+    }
+
+    private void waitForConsumers(long wrapPoint) {
+        long min;
+        int spins = 0;
+        while (wrapPoint > (min = minConsumerSeq())) {
+            notifySub();
+            // the consumers need the cpu more than we do
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        gatingCache = min;
+    }
+
+    private long minConsumerSeq() {
+        long min = claimed.get() - 1;
+        for (Consumer c : consumers.snapshot()) {
+            min = Math.min(min, c.sequence.get());
+        }
+        return min;
+    }
+
+    public IMeasurementHandler subscribe(IMeasurementHandler handler) {
+        Consumer c = new Consumer(handler, null);
+        consumers.add(c);
+        c.start();
+        return handler;
+    }
+
+    @Override
+    public void registerSubscriber(IObserver ob) {
+        Consumer c = new Consumer((seq, t, p, h, end) -> ob.update(new Measurement(seq, t, p, h)), ob);
+        consumers.add(c);
+        c.start();
+    }
+
+    @Override
+    public void removeSubscriber(IObserver ob) {
+        for (Consumer c : consumers.snapshot()) {
+            if (c.observer == ob) {
+                stop(c);
+            }
+        }
+    }
+
+    public void unsubscribe(IMeasurementHandler handler) {
+        for (Consumer c : consumers.snapshot()) {
+            if (c.handler == handler) {
+                stop(c);
+            }
+        }
+    }
+
+    private void stop(Consumer c) {
+        c.running = false;
+        LockSupport.unpark(c.thread);
+        consumers.remove(c);
+    }
+
+    // wakes subscribers that went to sleep for lack of events
+    @Override
+    public void notifySub() {
+        for (Consumer c : consumers.snapshot()) {
+            if (c.sleeping) {
+                LockSupport.unpark(c.thread);
+            }
+        }
+    }
+
+    // true once every subscriber has handled everything published so far
+    public boolean isDrained() {
+        return minConsumerSeq() >= claimed.get() - 1;
+    }
+
+    public void close() {
+        for (Consumer c : consumers.snapshot()) {
+            stop(c);
+        }
+    }
+
+    private class Consumer implements Runnable {
+        final IMeasurementHandler handler;
+        final IObserver observer;
+        final AtomicLong sequence; // last seq handled
+        final Thread thread;
+        volatile boolean running = true;
+        volatile boolean sleeping;
+
+        Consumer(IMeasurementHandler handler, IObserver observer) {
+            this.handler=handler;
+            this.observer=observer;
+            // starts with what gets published after it joined
+            this.sequence = new AtomicLong(claimed.get() - 1);
+            this.thread = new Thread(this, "ring-consumer");
+            this.thread.setDaemon(true);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                long next = sequence.get() + 1;
+                long last = next - 1;
+                while (published.get((int) (last + 1) & mask) == last + 1) {
+                    last++;
+                }
+                if (last < next) {
+                    idle = idle(idle);
+                    continue;
+                }
+                idle = 0;
+                for (long seq = next; seq <= last; seq++) {
+                    int slot = (int) seq & mask;
+                    try {
+                        handler.onMeasurement(seq, temp[slot], pressure[slot], humidity[slot], seq == last);
+                    } catch (RuntimeException e) {
+                        System.out.println("[subscriber failed : ] " + e);
+                    }
+                }
+                sequence.lazySet(last); // frees the slots for the producers
+            }
+        }
+
+        // spin, then yield, then sleep until notifySub or a short timeout
+        private int idle(int idle) {
+            if (idle < 100) {
+                Thread.onSpinWait();
+            } else if (idle < 200) {
+                Thread.yield();
+            } else {
+                sleeping = true;
+                LockSupport.parkNanos(50_000);
+                sleeping = false;
+            }
+            return idle + 1;
+        }
+    }
+}
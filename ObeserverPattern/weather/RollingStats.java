@@ -0,0 +1,154 @@
+package weather;
+
+// min/max/mean/percentiles of the last n values, or of the values of the last t nanos.
+// everything lives in primitive arrays sized once, nothing is allocated per value:
+//  - the window itself is a ring of floats (+ the time they came in)
+//  - mean: running sum, + on add, - on evict
+//  - min/max: monotonic deques of ring positions, each value goes in and out at most once
+//  - percentiles: counts per bucket over [lo, hi), + on add, - on evict, values outside are
+//    counted in the first/last bucket. accurate to one bucket width
+// so an add is O(1) amortized whatever the window size. not thread safe.
+public class RollingStats {
+
+    private final long windowNanos; // 0 = count window
+    private final int capacity;
+
+    private final float[] values;
+    private final long[] times;
+    private long head; // seq of the oldest value in the window
+    private long tail; // seq the next value gets
+
+    private double sum;
+
+    // seqs, oldest first. min: values increasing, max: values decreasing
+    private final long[] minQ;
+    private long minHead, minTail;
+    private final long[] maxQ;
+    private long maxHead, maxTail;
+
+    private final float lo;
+    private final float bucketWidth;
+    private final int[] buckets;
+
+    private RollingStats(long windowNanos, int capacity, float lo, float hi, int bucketCnt) {
+        if (capacity <= 0 || bucketCnt <= 0 || hi <= lo) {
+            throw new IllegalArgumentException("bad window : capacity=" + capacity + " buckets=" + bucketCnt + " range=" + lo + ".." + hi);
+        }
+        this.windowNanos=windowNanos;
+        this.capacity=capacity;
+        this.values = new float[capacity];
+        this.times = new long[capacity];
+        this.minQ = new long[capacity];
+        this.maxQ = new long[capacity];
+        this.lo=lo;
+        this.bucketWidth = (hi - lo) / bucketCnt;
+        this.buckets = new int[bucketCnt];
+    }
+
+    // the last n values
+    public static RollingStats countWindow(int n, float lo, float hi, int bucketCnt) {
+        return new RollingStats(0, n, lo, hi, bucketCnt);
+    }
+
+    // the values of the last windowNanos. at most maxSamples are kept, past that the
+    // oldest go early, so size it for the highest rate you expect
+    public static RollingStats timeWindow(long windowNanos, int maxSamples, float lo, float hi, int bucketCnt) {
+        if (windowNanos <= 0) {
+            throw new IllegalArgumentException("window must be > 0 : " + windowNanos);
+        }
+        return new RollingStats(windowNanos, maxSamples, lo, hi, bucketCnt);
+    }
+
+    public void add(float v, long nowNanos) {
+        expire(nowNanos);
+        if (tail - head == capacity) {
+            evict();
+        }
+        int slot = (int) (tail % capacity);
+        values[slot] = v;
+        times[slot] = nowNanos;
+        sum += v;
+        buckets[bucket(v)]++;
+
+        while (minTail > minHead && values[(int) (minQ[(int) ((minTail - 1) % capacity)] % capacity)] >= v) {
+            minTail--;
+        }
+        minQ[(int) (minTail++ % capacity)] = tail;
+        while (maxTail > maxHead && values[(int) (maxQ[(int) ((maxTail - 1) % capacity)] % capacity)] <= v) {
+            maxTail--;
+        }
+        maxQ[(int) (maxTail++ % capacity)] = tail;
+        tail++;
+    }
+
+    // drops what fell out of a time window, add does it too
+    public void expire(long nowNanos) {
+        if (windowNanos == 0) {
+            return;
+        }
+        while (tail > head && nowNanos - times[(int) (head % capacity)] > windowNanos) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        float v = values[(int) (head % capacity)];
+        sum -= v;
+        buckets[bucket(v)]--;
+        if (minTail > minHead && minQ[(int) (minHead % capacity)] == head) {
+            minHead++;
+        }
+        if (maxTail > maxHead && maxQ[(int) (maxHead % capacity)] == head) {
+            maxHead++;
+        }
+        head++;
+        if (head == tail) {
+            sum = 0; // no drift left over from float rounding
+        }
+    }
+
+    private int bucket(float v) {
+        int b = (int) ((v - lo) / bucketWidth);
+        return Math.max(0, Math.min(buckets.length - 1, b));
+    }
+
+    public int count() {
+        return (int) (tail - head);
+    }
+
+    // NaN when the window is empty
+    public float min() {
+        return count() == 0 ? Float.NaN : values[(int) (minQ[(int) (minHead % capacity)] % capacity)];
+    }
+
+    public float max() {
+        return count() == 0 ? Float.NaN : values[(int) (maxQ[(int) (maxHead % capacity)] % capacity)];
+    }
+
+    public float mean() {
+        return count() == 0 ? Float.NaN : (float) (sum / count());
+    }
+
+    // p in 0..100, the middle of the bucket holding the p-th percentile. O(buckets)
+    public float percentile(double p) {
+        int n = count();
+        if (n == 0) {
+            return Float.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(n * p / 100.0));
+        long seen = 0;
+        for (int b = 0; b < buckets.length; b++) {
+            seen += buckets[b];
+            if (seen >= rank) {
+                return lo + (b + 0.5f) * bucketWidth;
+            }
+        }
+        return lo + (buckets.length - 0.5f) * bucketWidth;
+    }
+
+    @Override
+    public String toString() {
+        return "n=" + count() + " min=" + min() + " max=" + max() + " mean=" + mean()
+                + " p50=" + percentile(50) + " p95=" + percentile(95);
+    }
+}
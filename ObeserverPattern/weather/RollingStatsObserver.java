@@ -0,0 +1,67 @@
+package weather;
+
+// forecast over a window instead of only the last reading:
+// rolling stats of temp, pressure and humidity, fed from every update.
+// memory is fixed by the window size, however many measurements go through.
+public class RollingStatsObserver implements IObserver {
+
+    // one unit wide buckets, covers every value the demos use
+    private static final float LO = -100;
+    private static final float HI = 1100;
+    private static final int BUCKETS = 1200;
+
+    private final RollingStats temp;
+    private final RollingStats pressure;
+    private final RollingStats humidity;
+    private final WeatherData weatherData;
+
+    private RollingStatsObserver(WeatherData wd, RollingStats temp, RollingStats pressure, RollingStats humidity) {
+        this.weatherData=wd;
+        this.temp=temp;
+        this.pressure=pressure;
+        this.humidity=humidity;
+        wd.registerSubscriber(this);
+    }
+
+    // the last n measurements
+    public static RollingStatsObserver lastN(WeatherData wd, int n) {
+        return new RollingStatsObserver(wd,
+                RollingStats.countWindow(n, LO, HI, BUCKETS),
+                RollingStats.countWindow(n, LO, HI, BUCKETS),
+                RollingStats.countWindow(n, LO, HI, BUCKETS));
+    }
+
+    // the measurements of the last windowMillis, up to maxSamples of them
+    public static RollingStatsObserver lastMillis(WeatherData wd, long windowMillis, int maxSamples) {
+        long nanos = windowMillis * 1_000_000;
+        return new RollingStatsObserver(wd,
+                RollingStats.timeWindow(nanos, maxSamples, LO, HI, BUCKETS),
+                RollingStats.timeWindow(nanos, maxSamples, LO, HI, BUCKETS),
+                RollingStats.timeWindow(nanos, maxSamples, LO, HI, BUCKETS));
+    }
+
+    @Override
+    public void update() {
+        update(weatherData.getMeasurement());
+    }
+
+    // synchronized, the dispatcher thread writes while a reader asks for the stats
+    @Override
+    public synchronized void update(Measurement m) {
+        long now = System.nanoTime();
+        temp.add(m.getTemp(), now);
+        pressure.add(m.getPressure(), now);
+        humidity.add(m.getHumidity(), now);
+    }
+
+    public synchronized void display() {
+        long now = System.nanoTime();
+        temp.expire(now);
+        pressure.expire(now);
+        humidity.expire(now);
+        System.out.println("======rolling stats===========");
+        System.out.println("[Temp : ]" + temp);
+        System.out.println("[Pressure : ]" + pressure);
+        System.out.println("[Humidity : ]" + humidity);
+    }
+}
@@ -0,0 +1,183 @@
+package weather;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// WeatherData for many stations at once.
+// the values are kept as columns, temp[station], pressure[station], humidity[station],
+// not as one object per station, so 20k stations are 3 float arrays.
+// stations are split in contiguous ranges (shards), each shard is written by one thread only:
+// ingest thread i calls shard(i).setMesurements(...) and no lock or CAS is needed on the write.
+// contiguous ranges also keep two writers off each other's cache lines.
+// readers on any thread get a consistent reading through a per station version (seqlock).
+public class StationHub {
+
+    private final int stationCnt;
+    private final int perShard;
+    private final float[] temp;
+    private final float[] pressure;
+    private final float[] humidity;
+    // odd while the station is being written, +2 per reading
+    private final AtomicLongArray version;
+    private final Shard[] shards;
+
+    // created on the first subscribe to a station
+    private final AtomicReferenceArray<SubscriberRegistry<IStationObserver>> subscribers;
+
+    public StationHub(int stationCnt, int shardCnt) {
+        if (stationCnt <= 0 || shardCnt <= 0) {
+            throw new IllegalArgumentException("stations and shards must be > 0 : " + stationCnt + ", " + shardCnt);
+        }
+        this.stationCnt=stationCnt;
+        this.perShard = (stationCnt + shardCnt - 1) / shardCnt;
+        this.temp = new float[stationCnt];
+        this.pressure = new float[stationCnt];
+        this.humidity = new float[stationCnt];
+        this.version = new AtomicLongArray(stationCnt);
+        this.subscribers = new AtomicReferenceArray<>(stationCnt);
+        // 5 stations in 4 shards is 2 per shard, so only 3 shards: never an empty range
+        shardCnt = (stationCnt + perShard - 1) / perShard;
+        this.shards = new Shard[shardCnt];
+        for (int i = 0; i < shardCnt; i++) {
+            shards[i] = new Shard(i * perShard, Math.min(stationCnt, (i + 1) * perShard));
+        }
+    }
+
+    // one shard per core by default
+    public StationHub(int stationCnt) {
+        this(stationCnt, Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getShardCnt() {
+        return shards.length;
+    }
+
+    public Shard shard(int i) {
+        return shards[i];
+    }
+
+    public Shard shardOf(int station) {
+        return shards[station / perShard];
+    }
+
+    // the stations [from, to) and the one thread that writes them.
+    // the first thread to call setMesurements owns the shard, any other writer gets an exception
+    public class Shard {
+        private final int from;
+        private final int to;
+        private Thread owner;
+
+        Shard(int from, int to) {
+            this.from=from;
+            this.to=to;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        // writes the station's columns and calls its subscribers, all on the calling thread
+        public void setMesurements(int station, float t, float p, float h) {
+            if (station < from || station >= to) {
+                throw new IllegalArgumentException("station " + station + " is not in shard [" + from + ", " + to + ")");
+            }
+            Thread me = Thread.currentThread();
+            if (owner != me) {
+                claim(me);
+            }
+            long v = version.get(station) + 1;
+            version.set(station, v); // odd, readers retry
+            VarHandle.storeStoreFence(); // the floats can't be seen before the odd version
+            temp[station] = t;
+            pressure[station] = p;
+            humidity[station] = h;
+            version.set(station, v + 1); // even again, release: publishes the floats
+
+            SubscriberRegistry<IStationObserver> subs = subscribers.get(station);
+            if (subs != null) {
+                long seq = (v + 1) / 2;
+                for (IStationObserver ob : subs.snapshot()) {
+                    ob.update(station, seq, t, p, h);
+                }
+            }
+        }
+
+        private synchronized void claim(Thread me) {
+            if (owner == null) {
+                owner = me;
+            } else if (owner != me) {
+                throw new IllegalStateException("shard [" + from + ", " + to + ") is written by " + owner.getName());
+            }
+        }
+
+        // lets another thread take over, e.g. after the ingest thread was restarted
+        public synchronized void release() {
+            owner = null;
+        }
+    }
+
+    // routes to the right shard, the caller must still be that shard's writer
+    public void setMesurements(int station, float t, float p, float h) {
+        shardOf(station).setMesurements(station, t, p, h);
+    }
+
+    // consistent reading of one station from any thread, seq 0 if it never reported
+    public Measurement read(int station) {
+        while (true) {
+            long v1 = version.get(station);
+            float t = temp[station];
+            float p = pressure[station];
+            float h = humidity[station];
+            VarHandle.loadLoadFence(); // the floats are read before the version check
+            if ((v1 & 1) == 0 && version.get(station) == v1) {
+                return new Measurement(v1 / 2, t, p, h);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    public void subscribe(int station, IStationObserver ob) {
+        SubscriberRegistry<IStationObserver> subs = subscribers.get(station);
+        if (subs == null) {
+            subscribers.compareAndSet(station, null, new SubscriberRegistry<>(new IStationObserver[0]));
+            subs = subscribers.get(station);
+        }
+        subs.add(ob);
+    }
+
+    // a group is just a list of stations, ob is subscribed to each of them
+    public void subscribe(int[] group, IStationObserver ob) {
+        for (int station : group) {
+            subscribe(station, ob);
+        }
+    }
+
+    // a range of stations, e.g. a region
+    public void subscribe(int from, int to, IStationObserver ob) {
+        for (int station = from; station < to; station++) {
+            subscribe(station, ob);
+        }
+    }
+
+    public void unsubscribe(int station, IStationObserver ob) {
+        SubscriberRegistry<IStationObserver> subs = subscribers.get(station);
+        if (subs != null) {
+            subs.remove(ob);
+        }
+    }
+
+    public void unsubscribe(int[] group, IStationObserver ob) {
+        for (int station : group) {
+            unsubscribe(station, ob);
+        }
+    }
+
+    public int getStationCnt() {
+        return stationCnt;
+    }
+}
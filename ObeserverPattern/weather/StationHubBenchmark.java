@@ -0,0 +1,55 @@
+package weather;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// ingest rate of the StationHub with 1, 2, 4... writer threads, one shard each.
+// every station has a subscriber that only counts.
+// run: java weather.StationHubBenchmark [stations] [rounds]
+public class StationHubBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int stations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("[CORES] " + cores);
+
+        for (int shards = 1; shards <= Math.max(4, cores); shards *= 2) {
+            for (int warm = 0; warm < 2; warm++) {
+                double rate = run(stations, rounds, shards);
+                if (warm == 1) {
+                    System.out.printf("[SHARDS %d] %.1f M readings/s%n", shards, rate);
+                }
+            }
+        }
+    }
+
+    static double run(int stations, int rounds, int shardCnt) throws InterruptedException {
+        StationHub hub = new StationHub(stations, shardCnt);
+        LongAdder seen = new LongAdder();
+        hub.subscribe(0, stations, (station, seq, t, p, h) -> seen.increment());
+
+        Thread[] writers = new Thread[shardCnt];
+        for (int i = 0; i < shardCnt; i++) {
+            StationHub.Shard shard = hub.shard(i);
+            writers[i] = new Thread(() -> {
+                for (int r = 0; r < rounds; r++) {
+                    for (int s = shard.getFrom(); s < shard.getTo(); s++) {
+                        shard.setMesurements(s, r, r, r);
+                    }
+                }
+            }, "shard-writer-" + i);
+        }
+        long start = System.nanoTime();
+        for (Thread w : writers) {
+            w.start();
+        }
+        for (Thread w : writers) {
+            w.join();
+        }
+        long ns = System.nanoTime() - start;
+        if (seen.sum() != (long) stations * rounds) {
+            throw new IllegalStateException("lost readings : " + seen.sum());
+        }
+        return (double) stations * rounds / (ns / 1000.0);
+    }
+}
@@ -0,0 +1,67 @@
+package weather;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+// copy on write list of subscribers, lock free.
+// notify loops over the current array: no iterator, no allocation, and a
+// register/remove running at the same time can't break the loop
+// (it changes the next array, the loop keeps the one it started with).
+// add/remove copy the array, that's fine as they are rare next to notifications.
+// an observer is only kept once, removing one that isn't there does nothing.
+public class SubscriberRegistry<T> {
+
+    private final AtomicReference<T[]> subs;
+
+    // empty is a zero length array of the element type, e.g. new IObserver[0]
+    public SubscriberRegistry(T[] empty) {
+        this.subs = new AtomicReference<>(empty);
+    }
+
+    public boolean add(T sub) {
+        while (true) {
+            T[] cur = subs.get();
+            if (indexOf(cur, sub) >= 0) {
+                return false;
+            }
+            T[] next = Arrays.copyOf(cur, cur.length + 1);
+            next[cur.length] = sub;
+            if (subs.compareAndSet(cur, next)) {
+                return true;
+            }
+        }
+    }
+
+    public boolean remove(T sub) {
+        while (true) {
+            T[] cur = subs.get();
+            int i = indexOf(cur, sub);
+            if (i < 0) {
+                return false;
+            }
+            T[] next = Arrays.copyOf(cur, cur.length - 1);
+            System.arraycopy(cur, i + 1, next, i, cur.length - i - 1);
+            if (subs.compareAndSet(cur, next)) {
+                return true;
+            }
+        }
+    }
+
+    // the current subscribers, never modified in place, don't write into it
+    public T[] snapshot() {
+        return subs.get();
+    }
+
+    public int size() {
+        return subs.get().length;
+    }
+
+    private static int indexOf(Object[] arr, Object sub) {
+        for (int i = 0; i < arr.length; i++) {
+            if (arr[i] == sub) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,9 @@
+package weather;
+
+public class SyncDispatcher implements IDispatcher {
+
+    @Override
+    public void dispatch(IObserver ob, Measurement m) {
+        ob.update(m);
+    }
+}
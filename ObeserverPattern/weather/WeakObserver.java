@@ -0,0 +1,41 @@
+package weather;
+
+import java.lang.ref.WeakReference;
+
+// what WeatherData.registerWeakSubscriber keeps instead of the observer itself,
+// so a display nobody else points to can be garbage collected.
+// WeatherData drops the wrapper the first time it finds it cleared.
+// don't register a lambda like this, nothing else holds it and it goes away at the next gc.
+class WeakObserver implements IObserver {
+
+    private final WeakReference<IObserver> ref;
+
+    WeakObserver(IObserver ob) {
+        this.ref = new WeakReference<>(ob);
+    }
+
+    IObserver get() {
+        return ref.get();
+    }
+
+    @Override
+    public void update() {
+        IObserver ob = ref.get();
+        if (ob != null) {
+            ob.update();
+        }
+    }
+
+    @Override
+    public void update(Measurement m) {
+        IObserver ob = ref.get();
+        if (ob != null) {
+            ob.update(m);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "weak(" + ref.get() + ")";
+    }
+}
@@ -1,20 +1,20 @@
 package weather;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
 
 public class WeatherData implements ISubject {
 
-    List<IObserver> subscribers;
-    private float temp;
-    private float pressure;
-    private float humidity;
+    SubscriberRegistry<IObserver> subscribers;
+    // all three values live in one immutable snapshot, swapped in one volatile write,
+    // so nobody can read the temp of one reading with the pressure of the next
+    private volatile Measurement current;
+    private IDispatcher dispatcher = new SyncDispatcher();
+    private volatile IInstrumentation instrumentation;
+    private volatile MeasurementLog log;
 
     public WeatherData(float temp, float pressure, float humidity) {
-        this.temp=temp;
-        this.pressure=pressure;
-        this.humidity=humidity;
-        subscribers= new ArrayList<>();
+        this.current = new Measurement(0, temp, pressure, humidity);
+        subscribers= new SubscriberRegistry<>(new IObserver[0]);
     }
 
     @Override
@@ -23,38 +23,171 @@ public class WeatherData implements ISubject {
         this.subscribers.add(ob);
     }
 
+    // opt in, WeatherData only keeps a weak reference to ob.
+    // a display that is no longer used anywhere else gets collected and is
+    // dropped from the subscribers on the next notification
+    public void registerWeakSubscriber(IObserver ob) {
+        for (IObserver sub : subscribers.snapshot()) {
+            if (sub == ob || (sub instanceof WeakObserver && ((WeakObserver) sub).get() == ob)) {
+                return;
+            }
+        }
+        System.out.println("[added new weak sub : ] "+ob);
+        this.subscribers.add(new WeakObserver(ob));
+    }
+
     @Override
     public void removeSubscriber(IObserver ob) {
-        int index = subscribers.indexOf(ob);
+        if (!this.subscribers.remove(ob) && !removeWeak(ob)) {
+            System.out.println("[not a sub : ] " + ob);
+            return;
+        }
         System.out.println("[removed a sub : ] " + ob);
-        this.subscribers.remove(index);
+        dispatcher.remove(ob);
+        IInstrumentation in = instrumentation;
+        if (in != null) {
+            in.remove(ob);
+        }
+    }
+
+    private boolean removeWeak(IObserver ob) {
+        for (IObserver sub : subscribers.snapshot()) {
+            if (sub instanceof WeakObserver && ((WeakObserver) sub).get() == ob) {
+                dispatcher.remove(sub);
+                IInstrumentation in = instrumentation;
+                if (in != null) {
+                    in.remove(sub);
+                }
+                return subscribers.remove(sub);
+            }
+        }
+        return false;
+    }
+
+    // e.g. new LatencyRecorder(), null turns it off again.
+    // with an async dispatcher the time measured is the hand off, not the display's update
+    public void setInstrumentation(IInstrumentation instrumentation) {
+        this.instrumentation=instrumentation;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // e.g. new AsyncDispatcher(...) so setMesurements doesn't wait for the displays
+    public void setDispatcher(IDispatcher dispatcher) {
+        this.dispatcher.close();
+        this.dispatcher=dispatcher;
     }
 
     @Override
     public void notifySub() {
         System.out.println("[updating all the subs]");
-        for(IObserver ob:subscribers) {
-            ob.update();
+        Measurement m = current;
+        IInstrumentation in = instrumentation;
+        if (in != null) {
+            notifyTimed(m, in);
+            return;
+        }
+        for(IObserver ob:subscribers.snapshot()) {
+            if (!pruned(ob, null)) {
+                dispatcher.dispatch(ob, m);
+            }
         }
     }
 
+    // same loop with the clock read around every observer
+    private void notifyTimed(Measurement m, IInstrumentation in) {
+        long start = System.nanoTime();
+        long t0 = start;
+        int dispatched = 0;
+        for (IObserver ob : subscribers.snapshot()) {
+            if (pruned(ob, in)) {
+                // not charged to the next observer
+                t0 = System.nanoTime();
+                continue;
+            }
+            dispatcher.dispatch(ob, m);
+            long t1 = System.nanoTime();
+            in.onUpdate(ob, t1 - t0);
+            t0 = t1;
+            dispatched++;
+        }
+        in.onFanOut(dispatched, t0 - start);
+    }
+
+    // drops ob if it is a weak sub whose display was collected,
+    // the only case where notifying allocates (a new array)
+    private boolean pruned(IObserver ob, IInstrumentation in) {
+        if (!(ob instanceof WeakObserver) || ((WeakObserver) ob).get() != null) {
+            return false;
+        }
+        subscribers.remove(ob);
+        dispatcher.remove(ob);
+        if (in != null) {
+            in.remove(ob);
+        }
+        return true;
+    }
+
+    // all three values of the latest reading at once
+    public Measurement getMeasurement() {
+        return this.current;
+    }
+
     public float getPressure() {
-        return this.pressure;
+        return this.current.getPressure();
     }
 
     public float getTemp() {
-        return this.temp;
+        return this.current.getTemp();
     }
 
     public float getHumidity() {
-        return this.humidity;
+        return this.current.getHumidity();
     }
 
     public void setMesurements(float temp, float pressure, float humidity) {
-        this.temp=temp;
-        this.pressure=pressure;
-        this.humidity=humidity;
-        notifySub();
+        MeasurementLog l = log;
+        if (l == null) {
+            this.current = new Measurement(current.getSeq() + 1, temp, pressure, humidity);
+            notifySub();
+            return;
+        }
+        // logged and notified under the log's lock, so replayAndSubscribe can't
+        // slip in between and get a reading twice or not at all
+        synchronized (l) {
+            this.current = new Measurement(current.getSeq() + 1, temp, pressure, humidity);
+            l.append(current);
+            notifySub();
+        }
+    }
+
+    // every setMesurements from now on is appended to the log.
+    // if the log already has readings the last one becomes the current values
+    // (and seqs carry on from it), so a restart picks up where it stopped
+    public void setLog(MeasurementLog log) throws IOException {
+        Measurement last = log.last();
+        if (last != null && last.getSeq() >= current.getSeq()) {
+            this.current = last;
+        }
+        this.log=log;
+    }
+
+    // a display that restarts: it gets every logged reading from the record fromOffset on
+    // (read from the mapped log, no lock held), then the few that came in meanwhile under
+    // the lock, and is registered before the lock is let go, so no reading is lost or repeated
+    public void replayAndSubscribe(IObserver ob, long fromOffset) throws IOException {
+        MeasurementLog l = log;
+        if (l == null) {
+            throw new IllegalStateException("no log set, nothing to replay");
+        }
+        IMeasurementHandler toObserver = (seq, t, p, h, end) -> ob.update(new Measurement(seq, t, p, h));
+        long next = l.replay(fromOffset, Long.MAX_VALUE, toObserver);
+        synchronized (l) {
+            l.replay(next, Long.MAX_VALUE, toObserver);
+            registerSubscriber(ob);
+        }
     }
     
 }
@@ -19,12 +19,18 @@ public class Book extends Item  {
         // Book book = new (this.sellingPrize, this.costPrize, this.discount, this.author);
         //then what's the need of Prototype design pattern
         Book book = new Book();
-        book.sellingPrize=this.sellingPrize;
-        book.costPrize=this.costPrize;
-        book.discount=this.discount;
-        book.author=this.author;
+        book.copyFrom(this);
 
         return book;
     }
 
+    @Override
+    public void copyFrom(Item prototype) {
+        Book src = (Book) prototype;
+        this.sellingPrize=src.sellingPrize;
+        this.costPrize=src.costPrize;
+        this.discount=src.discount;
+        this.author=src.author;
+    }
+
 }
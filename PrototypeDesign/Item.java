@@ -18,4 +18,8 @@ public abstract class Item implements IClonnable{
 
   
     public abstract Item clone();
+
+    // makes this a copy of prototype (same class) without a new object, used by ItemPool
+    // to reset a released item
+    public abstract void copyFrom(Item prototype);
 }
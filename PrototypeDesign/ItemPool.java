@@ -0,0 +1,75 @@
+package PrototypeDesign;
+
+import java.util.HashMap;
+
+// recycles clones instead of allocating a new one for every getClone.
+// acquire(key) hands out a released item of the prototype's class, reset from the prototype
+// with copyFrom (plain field copy), or a fresh clone when there is none to reuse.
+// every thread has its own free lists, so acquire/release never lock or contend;
+// an item released on another thread simply joins that thread's pool.
+// an item must not be used after release, the next acquire gets the same object.
+public class ItemPool {
+
+    private final LoadRegistry registry;
+    private final int maxPerClass;
+
+    // class of the item -> its free items, per thread
+    private final ThreadLocal<HashMap<Class<?>, FreeList>> free =
+            ThreadLocal.withInitial(HashMap::new);
+
+    // plain array stack, only ever touched by its own thread
+    private static class FreeList {
+        final Item[] items;
+        int size;
+
+        FreeList(int max) {
+            this.items = new Item[max];
+        }
+    }
+
+    public ItemPool(LoadRegistry registry, int maxPerClass) {
+        this.registry=registry;
+        this.maxPerClass=maxPerClass;
+    }
+
+    public ItemPool(LoadRegistry registry) {
+        this(registry, 256);
+    }
+
+    public Item acquire(String key) {
+        Item prototype = registry.prototype(key);
+        FreeList list = free.get().get(prototype.getClass());
+        if (list == null || list.size == 0) {
+            return prototype.clone();
+        }
+        Item item = list.items[--list.size];
+        list.items[list.size] = null;
+        item.copyFrom(prototype);
+        return item;
+    }
+
+    // back into this thread's pool, dropped for the gc once the pool is full
+    public void release(Item item) {
+        if (item == null) {
+            return;
+        }
+        HashMap<Class<?>, FreeList> lists = free.get();
+        FreeList list = lists.get(item.getClass());
+        if (list == null) {
+            list = new FreeList(maxPerClass);
+            lists.put(item.getClass(), list);
+        }
+        if (list.size < list.items.length) {
+            list.items[list.size++] = item;
+        }
+    }
+
+    // free items waiting on the calling thread
+    public int pooled() {
+        int n = 0;
+        for (FreeList list : free.get().values()) {
+            n += list.size;
+        }
+        return n;
+    }
+}
@@ -0,0 +1,58 @@
+package PrototypeDesign;
+
+import java.lang.management.ManagementFactory;
+
+// getClone vs ItemPool acquire/release: clones per second and bytes allocated per clone.
+// a service keeps items for a while, so the last 64 are kept alive here too
+// (otherwise the JIT can see through getClone and never allocate at all).
+// no JMH -prof gc available, the allocated bytes come from the JVM's per thread counter.
+// run: java PrototypeDesign.ItemPoolBenchmark [clones]
+public class ItemPoolBenchmark {
+
+    static volatile long sink;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        LoadRegistry registry = new LoadRegistry();
+        registry.loadRegistry();
+        ItemPool pool = new ItemPool(registry);
+
+        for (int round = 0; round < 3; round++) {
+            long[] plain = run(registry, null, n);
+            long[] pooled = run(registry, pool, n);
+            System.out.printf("[ROUND %d] getClone: %.1f M/s %.1f bytes/clone | pool: %.1f M/s %.1f bytes/clone%n",
+                    round, n / (plain[0] / 1000.0), plain[1] / (double) n,
+                    n / (pooled[0] / 1000.0), pooled[1] / (double) n);
+        }
+    }
+
+    // {nanos, allocated bytes}
+    static long[] run(LoadRegistry registry, ItemPool pool, int n) {
+        Item[] live = new Item[64];
+        long sum = 0;
+        long bytes0 = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            String key = (i & 1) == 0 ? "book" : "movie";
+            Item item = pool == null ? registry.getClone(key) : pool.acquire(key);
+            int slot = i & 63;
+            if (pool != null) {
+                pool.release(live[slot]);
+            }
+            live[slot] = item;
+            sum += item.discount;
+        }
+        long ns = System.nanoTime() - start;
+        long bytes = allocatedBytes() - bytes0;
+        sink = sum;
+        return new long[]{ns, bytes};
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+}
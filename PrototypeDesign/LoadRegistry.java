@@ -1,22 +1,60 @@
 package PrototypeDesign;
   import java.util.HashMap;
+import java.util.Map;
 
 public class LoadRegistry {
 
-    HashMap<String, Item> map = new HashMap<>();
+    // read mostly: getClone reads one volatile field, no lock, and always sees a whole map.
+    // every change builds a new immutable map and swaps it in (copy on write),
+    // writers are serialized on "this", they are rare next to clones
+    private volatile Map<String, Item> map = Map.of();
 
-    public void loadRegistry() {
+    public synchronized void loadRegistry() {
         // create prototypes
         Book fictionBooks = new Book(299, 200, 10, "xyz-author");
         Movie actionMovie = new Movie(599, 400, 15, "Action film",2);
 
-        map.put("book", fictionBooks);
-        map.put("movie", actionMovie);
+        // the defaults are reset, anything added with register() stays
+        Map<String, Item> next = new HashMap<>(map);
+        next.put("book", fictionBooks);
+        next.put("movie", actionMovie);
+        // a reload is one swap, readers see the old set or the new one, never half of it
+        this.map = Map.copyOf(next);
 
     }
 
+    // adds the prototype or replaces the one under key, while others keep cloning.
+    // the registry owns it from now on, don't change it afterwards
+    public synchronized void register(String key, Item prototype) {
+        if (key == null || prototype == null) {
+            throw new IllegalArgumentException("key and prototype can't be null");
+        }
+        Map<String, Item> next = new HashMap<>(map);
+        next.put(key, prototype);
+        this.map = Map.copyOf(next);
+    }
+
+    public synchronized boolean unregister(String key) {
+        if (!map.containsKey(key)) {
+            return false;
+        }
+        Map<String, Item> next = new HashMap<>(map);
+        next.remove(key);
+        this.map = Map.copyOf(next);
+        return true;
+    }
+
     public Item getClone(String key) {
-        return map.get(key).clone();
+        return prototype(key).clone();
+    }
+
+    // the registered prototype itself, for ItemPool. not to be modified
+    Item prototype(String key) {
+        Item prototype = key == null ? null : map.get(key);
+        if (prototype == null) {
+            throw new IllegalArgumentException("no prototype registered for : " + key);
+        }
+        return prototype;
         
 
     }
@@ -0,0 +1,85 @@
+package PrototypeDesign;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+// getClone throughput with 1..32 cloning threads, while one more thread keeps
+// replacing the "book" prototype and reloading the registry.
+// no JMH in this repo, a timed main instead, run it a few times.
+// run: java PrototypeDesign.LoadRegistryBenchmark [millisPerStep]
+public class LoadRegistryBenchmark {
+
+    // the clones' fields end up here so the JIT can't drop the getClone calls
+    static volatile long sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        System.out.println("[CORES] " + Runtime.getRuntime().availableProcessors());
+        run(1, millis); // warm up
+        for (int threads = 1; threads <= 32; threads *= 2) {
+            long[] r = run(threads, millis);
+            System.out.printf("[THREADS %2d] %.1f M clones/s, %d prototype swaps%n", threads, r[0] / (millis * 1000.0), r[1]);
+        }
+    }
+
+    static long[] run(int threads, long millis) throws InterruptedException {
+        LoadRegistry registry = new LoadRegistry();
+        registry.loadRegistry();
+        LongAdder clones = new LongAdder();
+        LongAdder swaps = new LongAdder();
+        CountDownLatch go = new CountDownLatch(1);
+        long[] end = new long[1];
+
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                awaitQuietly(go);
+                long n = 0;
+                long sum = 0;
+                while (System.nanoTime() < end[0]) {
+                    for (int k = 0; k < 1024; k++) {
+                        sum += registry.getClone((k & 1) == 0 ? "book" : "movie").discount;
+                    }
+                    n += 1024;
+                }
+                clones.add(n);
+                sink = sum;
+            });
+            workers[i].start();
+        }
+        Thread writer = new Thread(() -> {
+            awaitQuietly(go);
+            int i = 0;
+            while (System.nanoTime() < end[0]) {
+                if (++i % 10 == 0) {
+                    registry.loadRegistry();
+                } else {
+                    registry.register("book", new Book(299 + i, 200, 10, "author-" + i));
+                }
+                swaps.increment();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        writer.start();
+
+        end[0] = System.nanoTime() + millis * 1_000_000;
+        go.countDown();
+        for (Thread w : workers) {
+            w.join();
+        }
+        writer.join();
+        return new long[]{clones.sum(), swaps.sum()};
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -19,5 +19,23 @@ public class Main {
 
        System.out.println(" movie1 : "+movie1+" movie2 : "+movie2+" movie3 : "+movie3);
 
+       // hot swap of a prototype, clones made after it get the new one
+       registry.register("book", new Book(349, 200, 5, "abc-author"));
+       Item book4 = registry.getClone("book");
+       System.out.println("book4 : "+book4);
+
+       // pooled: released items come back reset from the prototype instead of new objects
+       ItemPool pool = new ItemPool(registry);
+       Item pooled1 = pool.acquire("movie");
+       pool.release(pooled1);
+       Item pooled2 = pool.acquire("movie");
+       System.out.println("pooled1 : "+pooled1+" pooled2 : "+pooled2+" same object : "+(pooled1 == pooled2));
+
+       try {
+           registry.getClone("game");
+       } catch (IllegalArgumentException e) {
+           System.out.println("[missing prototype] "+e.getMessage());
+       }
+
     }   
 }
@@ -18,13 +18,18 @@ public class Movie extends Item  {
     @Override
     public Item clone() {
         Movie movie = new Movie();
-
-        movie.sellingPrize = this.sellingPrize;
-        movie.costPrize = this.costPrize;
-        movie.discount = this.discount;
-        movie.name = this.name;
-        movie.time = this.time;
+        movie.copyFrom(this);
         return movie;
     }
 
+    @Override
+    public void copyFrom(Item prototype) {
+        Movie src = (Movie) prototype;
+        this.sellingPrize = src.sellingPrize;
+        this.costPrize = src.costPrize;
+        this.discount = src.discount;
+        this.name = src.name;
+        this.time = src.time;
+    }
+
 }
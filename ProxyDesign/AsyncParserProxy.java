@@ -0,0 +1,114 @@
+package ProxyDesign;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+// virtual proxy that parses in the background instead of on the caller's thread.
+// the first async call (or the constructor, with prewarm) starts the parse on the executor,
+// every call after that chains onto the same future, so request threads never block.
+// the plain ITextParser methods are still there for callers that are fine with waiting.
+public class AsyncParserProxy implements ITextParser, IAsyncTextParser {
+
+    private final Supplier<? extends ITextParser> factory;
+    private final Executor executor;
+    private CompletableFuture<ITextParser> parsed; // guarded by "this"
+
+    public AsyncParserProxy(Supplier<? extends ITextParser> factory, Executor executor, boolean prewarm) {
+        this.factory=factory;
+        this.executor=executor;
+        if (prewarm) {
+            parsed();
+        }
+    }
+
+    public static AsyncParserProxy forBook(String text, Executor executor, boolean prewarm) {
+        return new AsyncParserProxy(() -> new BookParser(text), executor, prewarm);
+    }
+
+    public static AsyncParserProxy forBook(Path path, Executor executor, boolean prewarm) {
+        return new AsyncParserProxy(() -> {
+            try {
+                return new BookParser(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not parse " + path, e);
+            }
+        }, executor, prewarm);
+    }
+
+    public static AsyncParserProxy forWebsite(String text, Executor executor, boolean prewarm) {
+        return new AsyncParserProxy(() -> new WebsiteParser(text), executor, prewarm);
+    }
+
+    // one parse per proxy, a failed parse is retried by the next call
+    synchronized CompletableFuture<ITextParser> parsed() {
+        if (parsed == null || parsed.isCompletedExceptionally()) {
+            System.out.println("[ASYNC INIT]-> parsing in background");
+            parsed = CompletableFuture.supplyAsync(factory::get, executor);
+        }
+        return parsed;
+    }
+
+    public boolean isReady() {
+        CompletableFuture<ITextParser> p;
+        synchronized (this) {
+            p = parsed;
+        }
+        return p != null && p.isDone() && !p.isCompletedExceptionally();
+    }
+
+    @Override
+    public CompletableFuture<Integer> getWordCntAsync() {
+        return parsed().thenApply(ITextParser::getWordCnt);
+    }
+
+    @Override
+    public CompletableFuture<Integer> getSentenceCntAsync() {
+        return parsed().thenApply(ITextParser::getSentenceCnt);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> searchWordAsync(String word) {
+        return parsed().thenApply(p -> p.searchWord(word));
+    }
+
+    @Override
+    public CompletableFuture<int[]> occurrencesAsync(String word) {
+        return parsed().thenApply(p -> p.occurrences(word));
+    }
+
+    @Override
+    public CompletableFuture<Long> firstOffsetAsync(String word) {
+        return parsed().thenApply(p -> p.firstOffset(word));
+    }
+
+    // blocking versions, wait for the background parse
+
+    @Override
+    public int getWordCnt() {
+        return parsed().join().getWordCnt();
+    }
+
+    @Override
+    public int getSentenceCnt() {
+        return parsed().join().getSentenceCnt();
+    }
+
+    @Override
+    public boolean searchWord(String word) {
+        return parsed().join().searchWord(word);
+    }
+
+    @Override
+    public int[] occurrences(String word) {
+        return parsed().join().occurrences(word);
+    }
+
+    @Override
+    public long firstOffset(String word) {
+        return parsed().join().firstOffset(word);
+    }
+}
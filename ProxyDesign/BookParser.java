@@ -1,28 +1,425 @@
 package ProxyDesign;
 
-public class BookParser implements ITextParser {
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class BookParser implements IEditableTextParser {
+    // the file is mapped in windows of this size, a single map is capped at 2GB anyway
+    static final long MAP_WINDOW = 64L * 1024 * 1024;
+
     String text;
     // XML xlmText;
 
+    // parallel parse never cuts the text into chunks smaller than this
+    static final int MIN_CHUNK = 1 << 20;
+
+    private int wordCnt;
+    private int sentenceCnt;
+    private WordIndex index;
+    // created on the first edit, from then on this is the text (see applyEdit)
+    private GapBuffer edited;
+    // file backed books are read into memory on their first edit
+    private Path source;
+    // reads share it, an edit or an index rebuild takes it alone, so nobody
+    // sees a half applied edit or an index being swapped
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
     public BookParser(String book) {
         this.text=book;
+        this.index = new WordIndex();
         //now parse the text and set in a data strucutre as needed.
+        //one pass over the chars, counts + search index together
+        TextTokenizer tokenizer = newTokenizer();
+        tokenizer.feed(book, 0, book.length());
+        done(tokenizer);
+    }
 
+    // streaming version, the book is never held as one String
+    public BookParser(Reader book) throws IOException {
+        this.index = new WordIndex();
+        TextTokenizer tokenizer = newTokenizer();
+        tokenizer.feed(book);
+        done(tokenizer);
+    }
+
+    // file backed version, the book is mapped (not read into the heap) and
+    // decoded from UTF-8 a few KB at a time straight into the tokenizer.
+    // the pages belong to the OS page cache, so multi-GB books are fine.
+    public BookParser(Path book) throws IOException {
+        this.source=book;
+        this.index = new WordIndex();
+        TextTokenizer tokenizer = newTokenizer();
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = CharBuffer.allocate(8192);
+        try (FileChannel channel = FileChannel.open(book, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long pos = 0;
+            while (pos < size) {
+                long len = Math.min(MAP_WINDOW, size - pos);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos, len);
+                boolean last = pos + len == size;
+                decode(decoder, window, chars, last, tokenizer);
+                // a multi byte char cut by the window end is left in the buffer,
+                // the next window is mapped starting at that char
+                pos += window.position();
+                if (!last && window.position() == 0) {
+                    throw new IOException("cannot decode " + book + " at byte " + pos);
+                }
+            }
+            if (size == 0) {
+                // the loop never ran, the decoder still has to be told the input is over
+                decoder.decode(ByteBuffer.allocate(0), chars, true);
+            }
+            decoder.flush(chars);
+            drain(chars, tokenizer);
+        }
+        done(tokenizer);
+    }
+
+    // parallel version for very big books. the text is cut into chunks on word
+    // boundaries, every chunk is tokenized + indexed on the pool, and the partial
+    // results are merged back in text order (see Chunk.merge).
+    public BookParser(String book, ForkJoinPool pool) {
+        this.text=book;
+        int chunk = Math.max(MIN_CHUNK, book.length() / (pool.getParallelism() * 4));
+        Chunk all = pool.invoke(new ChunkTask(book, 0, book.length(), chunk));
+        // the chunk indexes are joined once, in text order, here at the top
+        this.index = all.parts.get(0);
+        for (int i = 1; i < all.parts.size(); i++) {
+            index.append(all.parts.get(i));
+        }
+        this.wordCnt = all.words;
+        this.sentenceCnt = all.sentences + (all.open ? 1 : 0);
+    }
+
+    // counts + indexes of one piece of the text, and enough about its sentence
+    // edges to be glued to the piece before it. the indexes of the leaf chunks are
+    // only collected (in text order) while merging, appending them level by level
+    // would copy the postings once per level of the tree
+    static class Chunk {
+        List<WordIndex> parts = new ArrayList<>();
+        int words;
+        int sentences;
+        boolean open;               // words after the last . ! ?
+        boolean sawTerminator;
+        boolean terminatorFirst;    // a . ! ? before any word, closes the previous chunk's sentence
+
+        static Chunk of(String text, int from, int to) {
+            Chunk c = new Chunk();
+            WordIndex index = new WordIndex();
+            c.parts.add(index);
+            TextTokenizer tokenizer = new TextTokenizer(index, from);
+            tokenizer.feed(text, from, to);
+            tokenizer.flush();
+            c.words = tokenizer.getWordCnt();
+            c.sentences = tokenizer.getSentenceCnt();
+            c.open = tokenizer.isSentenceOpen();
+            c.sawTerminator = tokenizer.sawTerminator();
+            c.terminatorFirst = tokenizer.terminatorBeforeFirstWord();
+            return c;
+        }
+
+        // this + the chunk right after it
+        Chunk merge(Chunk next) {
+            parts.addAll(next.parts);
+            sentences += next.sentences;
+            if (open && next.terminatorFirst) {
+                sentences++;
+            }
+            if (words == 0) {
+                terminatorFirst = terminatorFirst || next.terminatorFirst;
+            }
+            open = next.open || (open && !next.sawTerminator);
+            sawTerminator = sawTerminator || next.sawTerminator;
+            words += next.words;
+            return this;
+        }
+    }
+
+    static class ChunkTask extends RecursiveTask<Chunk> {
+        private static final long serialVersionUID = 1L;
+
+        final String text;
+        final int from;
+        final int to;
+        final int chunk;
+
+        ChunkTask(String text, int from, int to, int chunk) {
+            this.text=text;
+            this.from=from;
+            this.to=to;
+            this.chunk=chunk;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from <= chunk) {
+                return Chunk.of(text, from, to);
+            }
+            // move the cut forward until it is not inside a word
+            int mid = from + (to - from) / 2;
+            while (mid < to && TextTokenizer.isWordChar(text.charAt(mid))) {
+                mid++;
+            }
+            if (mid == to) {
+                return Chunk.of(text, from, to);
+            }
+            ChunkTask right = new ChunkTask(text, mid, to, chunk);
+            right.fork();
+            Chunk left = new ChunkTask(text, from, mid, chunk).compute();
+            return left.merge(right.join());
+        }
+    }
+
+    private static void decode(CharsetDecoder decoder, ByteBuffer in, CharBuffer out, boolean endOfInput,
+            TextTokenizer tokenizer) {
+        while (true) {
+            decoder.decode(in, out, endOfInput);
+            drain(out, tokenizer);
+            if (!in.hasRemaining() || (!endOfInput && in.remaining() < 4)) {
+                return;
+            }
+        }
+    }
+
+    private static void drain(CharBuffer chars, TextTokenizer tokenizer) {
+        chars.flip();
+        tokenizer.feed(chars.array(), chars.arrayOffset() + chars.position(), chars.arrayOffset() + chars.limit());
+        chars.clear();
+    }
+
+    private TextTokenizer newTokenizer() {
+        return new TextTokenizer(index);
+    }
+
+    private void done(TextTokenizer tokenizer) {
+        tokenizer.finish();
+        this.wordCnt = tokenizer.getWordCnt();
+        this.sentenceCnt = tokenizer.getSentenceCnt();
     }
 
     @Override
     public int getWordCnt() {
         System.out.println("[BOOK PARSER]-> Word Cnt");
-        return 0;
+        lock.readLock().lock();
+        try {
+            return wordCnt;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public int getSentenceCnt() {
-        return 0;
+        lock.readLock().lock();
+        try {
+            return sentenceCnt;
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 
     @Override
     public boolean searchWord(String word) {
-        return true;
+        lock.readLock().lock();
+        try {
+            return index.contains(word);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int[] occurrences(String word) {
+        lockPositions();
+        try {
+            return index.occurrences(word);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long firstOffset(String word) {
+        lockPositions();
+        try {
+            return index.firstOffset(word);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // small edit of a big book. only the sentences touching the edit are tokenized:
+    // once before the edit (their words are taken out of the counts and the index),
+    // once after (their words are put back). cost follows the edit + its sentences,
+    // not the book. word positions can't be patched that cheaply, so they are
+    // rebuilt lazily by the next occurrences()/firstOffset() call.
+    // safe next to reads from other threads, they wait for the edit to finish.
+    @Override
+    public void applyEdit(int offset, int length, CharSequence replacement) {
+        lock.writeLock().lock();
+        try {
+            edit(offset, length, replacement);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void edit(int offset, int length, CharSequence replacement) {
+        if (edited == null) {
+            if (text == null && source != null) {
+                text = readText(source);
+            }
+            if (text == null) {
+                throw new UnsupportedOperationException("streamed books can't be edited");
+            }
+            edited = new GapBuffer(text);
+            text = null;
+        }
+        if (offset < 0 || length < 0 || offset + length > edited.length()) {
+            throw new IndexOutOfBoundsException("edit " + offset + "+" + length + " outside 0.." + edited.length());
+        }
+        int from = sentenceStart(edited, offset);
+        int to = sentenceEnd(edited, offset + length);
+
+        // the same index for both passes, whatever happens to the field
+        WordIndex idx = index;
+        TextTokenizer before = new TextTokenizer((buf, len, at) -> idx.removeOccurrence(buf, len));
+        before.feed(edited, from, to);
+        before.finish();
+
+        edited.replace(offset, length, replacement);
+        idx.markStale();
+        to += replacement.length() - length;
+
+        TextTokenizer after = new TextTokenizer((buf, len, at) -> idx.addOccurrence(buf, len));
+        after.feed(edited, from, to);
+        after.finish();
+
+        wordCnt += after.getWordCnt() - before.getWordCnt();
+        sentenceCnt += after.getSentenceCnt() - before.getSentenceCnt();
+    }
+
+    // a copy of the current text, with all edits applied. null for streamed/unedited file backed books
+    public CharSequence currentText() {
+        lock.readLock().lock();
+        try {
+            return edited != null ? edited.toString() : text;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEdited() {
+        lock.readLock().lock();
+        try {
+            return edited != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // returns holding the read lock, with positions valid. rebuilds them first
+    // (under the write lock) if an edit made them stale
+    private void lockPositions() {
+        lock.readLock().lock();
+        if (!index.isStale()) {
+            return;
+        }
+        lock.readLock().unlock();
+        lock.writeLock().lock();
+        try {
+            if (index.isStale()) {
+                WordIndex fresh = new WordIndex();
+                TextTokenizer tokenizer = new TextTokenizer(fresh);
+                tokenizer.feed(edited, 0, edited.length());
+                tokenizer.finish();
+                index = fresh;
+            }
+            lock.readLock().lock(); // downgrade, no edit can get in between
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String readText(Path file) {
+        try {
+            // malformed bytes become U+FFFD, as in the mapped parse
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("could not read " + file + " for editing", e);
+        }
+    }
+
+    // right after the . ! ? before offset (or 0), the tokenizer has no open word or sentence there
+    private static int sentenceStart(CharSequence doc, int offset) {
+        for (int i = offset - 1; i >= 0; i--) {
+            if (isTerminator(doc.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    // right after the first . ! ? at or after offset (or the end)
+    private static int sentenceEnd(CharSequence doc, int offset) {
+        for (int i = offset; i < doc.length(); i++) {
+            if (isTerminator(doc.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return doc.length();
+    }
+
+    private static boolean isTerminator(char c) {
+        return c == '.' || c == '!' || c == '?';
+    }
+
+    public long indexBytes() {
+        lock.readLock().lock();
+        try {
+            return index.memoryBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the editable copy of the text, 0 until the first edit
+    // (for a file backed book that is the whole file)
+    public long editBytes() {
+        lock.readLock().lock();
+        try {
+            return edited == null ? 0 : edited.memoryBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // what this parser keeps on the heap: the index plus the edit buffer
+    public long residentBytes() {
+        lock.readLock().lock();
+        try {
+            return index.memoryBytes() + (edited == null ? 0 : edited.memoryBytes());
+        } finally {
+            lock.readLock().unlock();
+        }
     }
 }
@@ -1,43 +1,141 @@
 package ProxyDesign;
 
-public class BookParserProxy implements ITextParser {
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 
-    BookParser bp;
+public class BookParserProxy implements IEditableTextParser {
+
+    // volatile, so once one thread has built the parser every other thread sees it
+    // without taking the lock (same double checked locking as DBConnectionLazy)
+    volatile BookParser bp;
     String text;
+    Path path;
+    int initCnt; // only touched inside the lock
+
+    // set when the proxy is managed by a ParserRegistry, which may unload the parser
+    volatile ParserRegistry registry;
+    volatile long lastAccess;
 
     public BookParserProxy(String text) {
         this.text=text;
     }
 
+    // file backed mode, only the path is held until the first call
+    public BookParserProxy(Path path) {
+        this.path=path;
+    }
+
 
     void init() {
         System.out.println("[INIT]-> bookParser");
-        bp = new BookParser(text);
+        initCnt++;
+        if (path != null) {
+            try {
+                bp = new BookParser(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not parse " + path, e);
+            }
+        } else {
+            bp = new BookParser(text);
+        }
+    }
+
+    // one thread parses, the others wait on the lock and then reuse its parser.
+    // after that it is a single volatile read, no locking.
+    BookParser parser() {
+        BookParser p = bp;
+        if (p == null) {
+            boolean loaded = false;
+            synchronized (this) {
+                if (bp == null) {
+                    init();
+                    loaded = true;
+                }
+                p = bp;
+            }
+            // told after the lock is released, the registry may unload other proxies
+            ParserRegistry r = registry;
+            if (loaded && r != null) {
+                r.loaded(this);
+            }
+        }
+        if (registry != null) {
+            lastAccess = System.nanoTime();
+        }
+        return p;
+    }
+
+    // drops the parsed book, the next call parses it again.
+    // callers already holding the old parser keep using it safely.
+    synchronized long unload() {
+        BookParser p = bp;
+        if (p == null) {
+            return 0;
+        }
+        bp = null;
+        if (p.isEdited()) {
+            // keep the edits, the next init parses the edited text (not the file)
+            text = p.currentText().toString();
+            path = null;
+        }
+        return p.residentBytes();
+    }
+
+    long residentBytes() {
+        BookParser p = bp;
+        return p == null ? 0 : p.residentBytes();
+    }
+
+    public int getInitCnt() {
+        synchronized (this) {
+            return initCnt;
+        }
     }
     
     @Override
     public int getWordCnt() {
-        if(bp==null) {
-            init();
-        }
+        BookParser p = parser();
         System.out.println("[BOOK PARSER PROXY]-> called bookParser obj");
-        return bp.getWordCnt();
+        return p.getWordCnt();
     }
 
     @Override
     public int getSentenceCnt() {
-        if(bp==null) {
-            init();
-        }
-        return bp.getSentenceCnt();
+        return parser().getSentenceCnt();
     }
 
     @Override
     public boolean searchWord(String word) {
-        if(bp==null) {
-            init();
+        return parser().searchWord(word);
+    }
+
+    @Override
+    public int[] occurrences(String word) {
+        return parser().occurrences(word);
+    }
+
+    @Override
+    public long firstOffset(String word) {
+        return parser().firstOffset(word);
+    }
+
+    // under the lock so an edit can't race with unload().
+    // the first edit copies the text (and a big insert can grow that copy), so then the
+    // registry gets to check its budget again, after the lock is released as it may unload others
+    @Override
+    public void applyEdit(int offset, int length, CharSequence replacement) {
+        boolean grew;
+        synchronized (this) {
+            BookParser p = parser();
+            long before = p.editBytes();
+            p.applyEdit(offset, length, replacement);
+            grew = p.editBytes() != before;
+        }
+        ParserRegistry r = registry;
+        if (grew && r != null) {
+            r.resized(this);
         }
-        return bp.searchWord(word);
     }
     
 }
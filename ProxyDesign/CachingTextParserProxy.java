@@ -0,0 +1,169 @@
+package ProxyDesign;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// cache proxy, can wrap any ITextParser (a BookParserProxy, a WebsiteParserProxy...)
+// word/sentence counts are remembered after the first call,
+// searchWord answers are kept in an LRU map bounded by entry count and by an approximate byte weight.
+// an edit through applyEdit (or a call to invalidate()) throws away everything cached.
+public class CachingTextParserProxy implements IEditableTextParser {
+
+    // String header + char[] header + map entry, roughly
+    static final int ENTRY_OVERHEAD = 96;
+
+    private final ITextParser target;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    private volatile int wordCnt = -1;
+    private volatile int sentenceCnt = -1;
+
+    // access ordered LinkedHashMap = LRU, guarded by "this"
+    private final LinkedHashMap<String, Boolean> searches = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    // +1 per invalidate, an answer computed before it is not cached after it
+    private volatile long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public CachingTextParserProxy(ITextParser target, int maxEntries, long maxBytes) {
+        this.target=target;
+        this.maxEntries=maxEntries;
+        this.maxBytes=maxBytes;
+    }
+
+    public CachingTextParserProxy(ITextParser target) {
+        this(target, 10_000, 4L * 1024 * 1024);
+    }
+
+    @Override
+    public int getWordCnt() {
+        int cnt = wordCnt;
+        if (cnt < 0) {
+            long gen = generation;
+            cnt = target.getWordCnt();
+            synchronized (this) {
+                if (gen == generation) {
+                    wordCnt = cnt;
+                }
+            }
+        }
+        return cnt;
+    }
+
+    @Override
+    public int getSentenceCnt() {
+        int cnt = sentenceCnt;
+        if (cnt < 0) {
+            long gen = generation;
+            cnt = target.getSentenceCnt();
+            synchronized (this) {
+                if (gen == generation) {
+                    sentenceCnt = cnt;
+                }
+            }
+        }
+        return cnt;
+    }
+
+    @Override
+    public boolean searchWord(String word) {
+        long gen;
+        synchronized (this) {
+            Boolean found = searches.get(word);
+            if (found != null) {
+                hits++;
+                return found;
+            }
+            misses++;
+            gen = generation;
+        }
+        // the real lookup runs outside the lock, two threads missing on the
+        // same word just both ask the target
+        boolean found = target.searchWord(word);
+        synchronized (this) {
+            if (gen == generation && searches.put(word, found) == null) {
+                bytes += weight(word);
+                evict();
+            }
+        }
+        return found;
+    }
+
+    // positions can be big arrays, not worth caching, passed through
+    @Override
+    public int[] occurrences(String word) {
+        return target.occurrences(word);
+    }
+
+    @Override
+    public long firstOffset(String word) {
+        return target.firstOffset(word);
+    }
+
+    // edits the target and drops the cache. the target has to be editable
+    @Override
+    public void applyEdit(int offset, int length, CharSequence replacement) {
+        if (!(target instanceof IEditableTextParser)) {
+            throw new UnsupportedOperationException("target can't be edited : " + target);
+        }
+        try {
+            ((IEditableTextParser) target).applyEdit(offset, length, replacement);
+        } finally {
+            invalidate();
+        }
+    }
+
+    // for a target edited some other way, the next calls ask it again
+    public synchronized void invalidate() {
+        generation++;
+        wordCnt = -1;
+        sentenceCnt = -1;
+        searches.clear();
+        bytes = 0;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Boolean>> it = searches.entrySet().iterator();
+        while ((searches.size() > maxEntries || bytes > maxBytes) && it.hasNext()) {
+            String eldest = it.next().getKey();
+            it.remove();
+            bytes -= weight(eldest);
+            evictions++;
+        }
+    }
+
+    private static long weight(String word) {
+        return ENTRY_OVERHEAD + 2L * word.length();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized long getCachedBytes() {
+        return bytes;
+    }
+
+    public synchronized int getCachedEntries() {
+        return searches.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "[CACHE] hits=" + hits + " misses=" + misses + " evictions=" + evictions
+                + " entries=" + searches.size() + " bytes=" + bytes;
+    }
+}
@@ -0,0 +1,52 @@
+package ProxyDesign;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// stress check for the lazy proxies: many threads hit a fresh proxy at the same moment,
+// every proxy must have run init() exactly once and all threads must see the same result.
+// run: java ProxyDesign.ConcurrentInitCheck [threads] [rounds]
+public class ConcurrentInitCheck {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        String book = ParserBenchmark.generate(256 * 1024);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < rounds; round++) {
+                BookParserProxy bookProxy = new BookParserProxy(book);
+                WebsiteParserProxy siteProxy = new WebsiteParserProxy(book);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    ITextParser target = t % 2 == 0 ? bookProxy : siteProxy;
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return target.occurrences("book").length;
+                    }));
+                }
+                start.countDown();
+
+                int expected = results.get(0).get();
+                for (Future<Integer> f : results) {
+                    if (f.get() != expected) {
+                        throw new IllegalStateException("threads saw different parsers in round " + round);
+                    }
+                }
+                if (bookProxy.getInitCnt() != 1 || siteProxy.getInitCnt() != 1) {
+                    throw new IllegalStateException("round " + round + ": book init x" + bookProxy.getInitCnt()
+                            + ", website init x" + siteProxy.getInitCnt());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        System.out.println("[OK] " + rounds + " rounds x " + threads + " threads, exactly one init() per proxy");
+    }
+}
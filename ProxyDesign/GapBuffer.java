@@ -0,0 +1,90 @@
+package ProxyDesign;
+
+// editable text for BookParser.applyEdit. the chars live in one array with a gap
+// (free space) at the last edit position, an edit only moves the chars between the
+// old and the new gap position, so edits near each other don't shift the whole book
+// the way StringBuilder.replace does.
+public class GapBuffer implements CharSequence {
+
+    private char[] buf;
+    private int gapStart;
+    private int gapEnd;
+
+    public GapBuffer(CharSequence text) {
+        int n = text.length();
+        buf = new char[n + Math.max(1024, n / 64)];
+        for (int i = 0; i < n; i++) {
+            buf[i] = text.charAt(i);
+        }
+        gapStart = n;
+        gapEnd = buf.length;
+    }
+
+    // heap taken by the chars, gap included
+    public long memoryBytes() {
+        return 16 + 2L * buf.length;
+    }
+
+    @Override
+    public int length() {
+        return buf.length - (gapEnd - gapStart);
+    }
+
+    @Override
+    public char charAt(int index) {
+        return index < gapStart ? buf[index] : buf[index + (gapEnd - gapStart)];
+    }
+
+    // replaces [offset, offset + length) with the given text
+    public void replace(int offset, int length, CharSequence replacement) {
+        if (offset < 0 || length < 0 || offset + length > length()) {
+            throw new IndexOutOfBoundsException("edit " + offset + "+" + length + " outside 0.." + length());
+        }
+        moveGap(offset);
+        gapEnd += length;
+        int n = replacement.length();
+        if (gapEnd - gapStart < n) {
+            growGap(n);
+        }
+        for (int i = 0; i < n; i++) {
+            buf[gapStart++] = replacement.charAt(i);
+        }
+    }
+
+    private void moveGap(int to) {
+        if (to < gapStart) {
+            int n = gapStart - to;
+            System.arraycopy(buf, to, buf, gapEnd - n, n);
+            gapStart -= n;
+            gapEnd -= n;
+        } else if (to > gapStart) {
+            int n = to - gapStart;
+            System.arraycopy(buf, gapEnd, buf, gapStart, n);
+            gapStart += n;
+            gapEnd += n;
+        }
+    }
+
+    private void growGap(int needed) {
+        int tail = buf.length - gapEnd;
+        char[] bigger = new char[buf.length + needed + buf.length / 2];
+        System.arraycopy(buf, 0, bigger, 0, gapStart);
+        System.arraycopy(buf, gapEnd, bigger, bigger.length - tail, tail);
+        gapEnd = bigger.length - tail;
+        buf = bigger;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        StringBuilder sb = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            sb.append(charAt(i));
+        }
+        return sb;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(length()).append(buf, 0, gapStart).append(buf, gapEnd, buf.length - gapEnd).toString();
+    }
+}
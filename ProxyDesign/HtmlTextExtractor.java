@@ -0,0 +1,305 @@
+package ProxyDesign;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// streaming html -> visible text, no DOM. a small state machine looks at every char once:
+// tags and comments are dropped (a block tag like <p> or <br> acts as a space so words on
+// both sides don't glue, an inline one like <b> doesn't, bo<b>ld</b> is one word),
+// a < only starts a tag when a letter, / ! or ? follows it, "a < b" stays text,
+// everything inside <script> and <style> is dropped, entities like &amp; &#39; &#x2014; are decoded.
+// visible chars are collected in a small buffer and handed to the tokenizer in batches,
+// so memory stays the same whatever the page size.
+public class HtmlTextExtractor {
+
+    private static final int TEXT = 0;
+    private static final int TAG = 1;
+    private static final int COMMENT = 2;
+    private static final int RAW = 3;     // inside script/style
+    private static final int ENTITY = 4;
+    private static final int LT = 5;      // just saw a <, tag or text depends on the next char
+
+    // tags that end a block of text, the words before and after them are separate
+    private static final String[] BLOCK_TAGS = {
+            "p", "br", "div", "li", "ul", "ol", "dl", "dt", "dd", "tr", "td", "th", "table",
+            "thead", "tbody", "tfoot", "caption", "h1", "h2", "h3", "h4", "h5", "h6", "hr",
+            "section", "article", "header", "footer", "nav", "aside", "main", "blockquote",
+            "pre", "title", "head", "body", "html", "form", "fieldset", "legend", "figure",
+            "figcaption", "address", "option", "select", "textarea", "button", "label",
+            "img", "input", "iframe", "script", "style", "noscript", "details", "summary"
+    };
+
+    private final TextTokenizer tokenizer;
+    private final char[] out = new char[4096];
+    private int outLen;
+
+    private int state = TEXT;
+
+    // tag name, lowercased, only the first few chars matter
+    private final char[] tagName = new char[16];
+    private int tagLen;
+    private boolean nameDone;
+    private boolean closing;
+    private char quote;
+    private char prev;
+    private char prev2;
+
+    private char[] rawEnd;  // "</script" or "</style"
+    private int rawMatch;
+
+    private final char[] entity = new char[12];
+    private int entityLen;
+
+    private static final char[] END_SCRIPT = "</script".toCharArray();
+    private static final char[] END_STYLE = "</style".toCharArray();
+
+    public HtmlTextExtractor(TextTokenizer tokenizer) {
+        this.tokenizer=tokenizer;
+    }
+
+    public void feed(CharSequence html, int from, int to) {
+        for (int i = from; i < to; i++) {
+            accept(html.charAt(i));
+        }
+    }
+
+    public void feed(char[] html, int from, int to) {
+        for (int i = from; i < to; i++) {
+            accept(html[i]);
+        }
+    }
+
+    public void feed(Reader html) throws IOException {
+        char[] chunk = new char[8192];
+        int n;
+        while ((n = html.read(chunk)) != -1) {
+            feed(chunk, 0, n);
+        }
+    }
+
+    public void finish() {
+        if (state == ENTITY) {
+            badEntity();
+        } else if (state == LT) {
+            emit('<');
+        }
+        flush();
+        tokenizer.finish();
+    }
+
+    private void accept(char c) {
+        switch (state) {
+            case TEXT:
+                if (c == '<') {
+                    state = LT;
+                } else if (c == '&') {
+                    state = ENTITY;
+                    entityLen = 0;
+                } else {
+                    emit(c);
+                }
+                break;
+            case LT:
+                if (Character.isLetter(c) || c == '/' || c == '!' || c == '?') {
+                    startTag();
+                    inTag(c);
+                } else {
+                    // "a < b", the < was text
+                    state = TEXT;
+                    emit('<');
+                    accept(c);
+                }
+                break;
+            case TAG:
+                inTag(c);
+                break;
+            case COMMENT:
+                if (c == '>' && prev == '-' && prev2 == '-') {
+                    state = TEXT;
+                }
+                prev2 = prev;
+                prev = c;
+                break;
+            case RAW:
+                char lower = Character.toLowerCase(c);
+                if (lower == rawEnd[rawMatch]) {
+                    rawMatch++;
+                    if (rawMatch == rawEnd.length) {
+                        // the rest of "</script ...>" is a normal closing tag
+                        startTag();
+                        closing = true;
+                        nameDone = true;
+                    }
+                } else {
+                    rawMatch = c == '<' ? 1 : 0;
+                }
+                break;
+            default:
+                inEntity(c);
+        }
+    }
+
+    private void startTag() {
+        state = TAG;
+        tagLen = 0;
+        nameDone = false;
+        closing = false;
+        quote = 0;
+        prev = 0;
+    }
+
+    // prev is the last non blank char of the tag, a quote only opens an attribute value
+    // right after =, so <p title='don't'> or <img alt=it's> don't swallow the rest of the page
+    private void inTag(char c) {
+        if (quote != 0) {
+            if (c == quote) {
+                quote = 0;
+                prev = c;
+            }
+            return;
+        }
+        if (!nameDone) {
+            if (c == '/' && tagLen == 0) {
+                closing = true;
+                return;
+            }
+            if (c == '>' || c == '/' || Character.isWhitespace(c)) {
+                nameDone = true;
+            } else {
+                if (tagLen < tagName.length) {
+                    tagName[tagLen++] = Character.toLowerCase(c);
+                }
+                if (tagLen == 3 && tagName[0] == '!' && tagName[1] == '-' && tagName[2] == '-') {
+                    state = COMMENT;
+                    prev = 0;
+                    prev2 = 0;
+                }
+                return;
+            }
+        }
+        if ((c == '"' || c == '\'') && prev == '=') {
+            quote = c;
+        } else if (c == '>') {
+            endTag();
+        }
+        if (!Character.isWhitespace(c)) {
+            prev = c;
+        }
+    }
+
+    private void endTag() {
+        if (isBlockTag()) {
+            emit(' ');
+        }
+        state = TEXT;
+        if (!closing && prev != '/') {
+            if (isTag("script")) {
+                rawEnd = END_SCRIPT;
+                state = RAW;
+                rawMatch = 0;
+            } else if (isTag("style")) {
+                rawEnd = END_STYLE;
+                state = RAW;
+                rawMatch = 0;
+            }
+        }
+    }
+
+    // block tags, and <!doctype ...> / <?xml ...?>
+    private boolean isBlockTag() {
+        if (tagLen > 0 && (tagName[0] == '!' || tagName[0] == '?')) {
+            return true;
+        }
+        for (String name : BLOCK_TAGS) {
+            if (isTag(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isTag(String name) {
+        if (tagLen != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < tagLen; i++) {
+            if (tagName[i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void inEntity(char c) {
+        if (c == ';') {
+            int cp = decode();
+            state = TEXT;
+            if (cp < 0) {
+                badEntity();
+                emit(';');
+            } else if (Character.isBmpCodePoint(cp)) {
+                emit((char) cp);
+            } else {
+                emit(Character.highSurrogate(cp));
+                emit(Character.lowSurrogate(cp));
+            }
+        } else if (entityLen < entity.length && (Character.isLetterOrDigit(c) || c == '#')) {
+            entity[entityLen++] = c;
+        } else {
+            // not an entity after all ("fish & chips"), keep the text as it was
+            badEntity();
+            accept(c);
+        }
+    }
+
+    private void badEntity() {
+        state = TEXT;
+        emit('&');
+        for (int i = 0; i < entityLen; i++) {
+            emit(entity[i]);
+        }
+    }
+
+    // code point of the collected entity, -1 if unknown
+    private int decode() {
+        if (entityLen > 1 && entity[0] == '#') {
+            boolean hex = entity[1] == 'x' || entity[1] == 'X';
+            int cp = 0;
+            for (int i = hex ? 2 : 1; i < entityLen; i++) {
+                int d = Character.digit(entity[i], hex ? 16 : 10);
+                if (d < 0 || cp > 0x10FFFF) {
+                    return -1;
+                }
+                cp = cp * (hex ? 16 : 10) + d;
+            }
+            return cp <= 0x10FFFF && (entityLen > (hex ? 2 : 1)) ? cp : -1;
+        }
+        switch (new String(entity, 0, entityLen)) {
+            case "amp": return '&';
+            case "lt": return '<';
+            case "gt": return '>';
+            case "quot": return '"';
+            case "apos": return '\'';
+            case "nbsp": return ' ';
+            case "ndash": return '\u2013';
+            case "mdash": return '\u2014';
+            case "hellip": return '\u2026';
+            case "rsquo": return '\u2019';
+            case "lsquo": return '\u2018';
+            case "copy": return '\u00A9';
+            default: return -1;
+        }
+    }
+
+    private void emit(char c) {
+        if (outLen == out.length) {
+            flush();
+        }
+        out[outLen++] = c;
+    }
+
+    private void flush() {
+        tokenizer.feed(out, 0, outLen);
+        outLen = 0;
+    }
+}
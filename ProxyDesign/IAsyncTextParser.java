@@ -0,0 +1,12 @@
+package ProxyDesign;
+
+import java.util.concurrent.CompletableFuture;
+
+// non blocking side of ITextParser, the futures complete once the text is parsed
+public interface IAsyncTextParser {
+    CompletableFuture<Integer> getWordCntAsync();
+    CompletableFuture<Integer> getSentenceCntAsync();
+    CompletableFuture<Boolean> searchWordAsync(String word);
+    CompletableFuture<int[]> occurrencesAsync(String word);
+    CompletableFuture<Long> firstOffsetAsync(String word);
+}
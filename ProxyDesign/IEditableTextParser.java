@@ -0,0 +1,12 @@
+package ProxyDesign;
+
+// a parser that can follow small edits of its text without parsing everything again.
+// the edit itself only re-reads the sentences around it, and getWordCnt, getSentenceCnt
+// and searchWord stay cheap after it. word positions are not patched though:
+// the first occurrences()/firstOffset() after an edit re-tokenizes the whole text,
+// so alternating edits and positional queries costs a full parse per edit.
+// the edited text is held in memory (a file backed book is read in on its first edit).
+public interface IEditableTextParser extends ITextParser {
+    // replaces the chars [offset, offset + length) with replacement
+    void applyEdit(int offset, int length, CharSequence replacement);
+}
@@ -4,5 +4,11 @@ public interface ITextParser {
     int getWordCnt();
     int getSentenceCnt();
     boolean searchWord(String word);
+
+    // positions (0 = first word of the text) of every occurrence of the word
+    int[] occurrences(String word);
+
+    // char offset where the word first shows up, -1 if it never does
+    long firstOffset(String word);
     
 }
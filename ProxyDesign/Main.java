@@ -1,5 +1,7 @@
 package ProxyDesign;
 
+import java.util.concurrent.ForkJoinPool;
+
 public class Main {
 
     //create a book-parser 
@@ -25,6 +27,26 @@ public static void main(String[] args) {
     client2.print();
     int wordCnt2 = client2.getTotalWc();
     System.out.println("[TOTAL Cnt -> WEBSITE PARSER]" + wordCnt2);
+
+    System.out.println("--------------------caching proxy ex--------------------------");
+
+    //cache proxy on top of the lazy proxy, client still only sees ITextParser
+    CachingTextParserProxy cached = new CachingTextParserProxy(new BookParserProxy("a small book. a lazy book!"));
+    ParserClient client3 = new ParserClient(cached);
+    client3.getTotalWc();
+    client3.getTotalWc();
+    cached.searchWord("lazy");
+    cached.searchWord("lazy");
+    System.out.println(cached);
+
+    System.out.println("--------------------async proxy ex--------------------------");
+
+    //prewarm -> parsing starts right away on another thread, nothing here blocks
+    AsyncParserProxy async = AsyncParserProxy.forBook("async book. parsed elsewhere!", ForkJoinPool.commonPool(), true);
+    async.getWordCntAsync()
+            .thenCombine(async.getSentenceCntAsync(), (w, s) -> "[ASYNC] words=" + w + " sentences=" + s)
+            .thenAccept(System.out::println)
+            .join(); //only so the demo waits before exiting
 }
     
 }
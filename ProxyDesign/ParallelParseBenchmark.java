@@ -0,0 +1,38 @@
+package ProxyDesign;
+
+import java.util.concurrent.ForkJoinPool;
+
+// speedup of the fork/join BookParser at 1/2/4/8 threads vs the single pass one
+// run: java ProxyDesign.ParallelParseBenchmark [sizeInMB]
+public class ParallelParseBenchmark {
+
+    public static void main(String[] args) {
+        int mb = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        String book = ParserBenchmark.generate(mb * 1024 * 1024);
+        System.out.println("[CORES] " + Runtime.getRuntime().availableProcessors());
+
+        long baseline = best(() -> new BookParser(book));
+        System.out.printf("[SEQUENTIAL] %d ms%n", baseline / 1_000_000);
+
+        for (int threads : new int[] { 1, 2, 4, 8 }) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                long ns = best(() -> new BookParser(book, pool));
+                System.out.printf("[PARALLEL x%d] %d ms, speedup %.2fx%n", threads, ns / 1_000_000, (double) baseline / ns);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    // best of a few runs, the first ones are JIT warmup
+    static long best(Runnable parse) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            long start = System.nanoTime();
+            parse.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
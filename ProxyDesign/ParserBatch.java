@@ -0,0 +1,175 @@
+package ProxyDesign;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// counts words/sentences of many documents on a fixed pool of threads.
+// a feeder thread walks the documents lazily and only keeps maxInFlight of them
+// running or waiting to be read, a slot frees up when the caller takes a result
+// from the stream. so a slow reader slows down the parsing instead of piling up results.
+// results come out in completion order, not input order.
+public class ParserBatch implements AutoCloseable {
+
+    // one document's outcome, error is null when it went fine.
+    // docNo is -1 for a failure of the document iterator itself
+    public static class Result {
+        public final int docNo;
+        public final int wordCnt;
+        public final int sentenceCnt;
+        public final Throwable error;
+
+        Result(int docNo, int wordCnt, int sentenceCnt, Throwable error) {
+            this.docNo=docNo;
+            this.wordCnt=wordCnt;
+            this.sentenceCnt=sentenceCnt;
+            this.error=error;
+        }
+
+        @Override
+        public String toString() {
+            return error == null ? "[DOC " + docNo + "] words=" + wordCnt + " sentences=" + sentenceCnt
+                    : "[DOC " + docNo + "] failed: " + error;
+        }
+    }
+
+    // totals of everything read from the stream so far
+    public static class Stats {
+        public long docs;
+        public long failed;
+        public long words;
+        public long sentences;
+
+        @Override
+        public String toString() {
+            return "[BATCH] docs=" + docs + " failed=" + failed + " words=" + words + " sentences=" + sentences;
+        }
+    }
+
+    private static final Result END = new Result(-1, 0, 0, null);
+
+    private final Iterator<? extends ITextParser> docs;
+    private final ExecutorService pool;
+    private final Semaphore slots;
+    private final BlockingQueue<Result> done;
+    // documents submitted but not finished, +1 for the feeder while it is still feeding
+    private final AtomicInteger pending = new AtomicInteger(1);
+    private final Stats stats = new Stats();
+    private final Thread feeder;
+
+    public ParserBatch(Iterator<? extends ITextParser> docs, int threads, int maxInFlight) {
+        this.docs=docs;
+        this.pool = Executors.newFixedThreadPool(threads);
+        this.slots = new Semaphore(maxInFlight);
+        this.done = new ArrayBlockingQueue<>(maxInFlight + 1);
+        this.feeder = new Thread(this::feed, "parser-batch-feeder");
+        this.feeder.setDaemon(true);
+        this.feeder.start();
+    }
+
+    private void feed() {
+        int docNo = 0;
+        Result failure = null;
+        try {
+            while (docs.hasNext()) {
+                slots.acquire();
+                ITextParser doc = docs.next();
+                int no = docNo++;
+                pending.incrementAndGet();
+                pool.execute(() -> {
+                    // whatever the document throws (even an OutOfMemoryError) it ends
+                    // as a failed result, otherwise the stream would wait for it forever
+                    Result r;
+                    try {
+                        r = new Result(no, doc.getWordCnt(), doc.getSentenceCnt(), null);
+                    } catch (Throwable e) {
+                        r = new Result(no, 0, 0, e);
+                    }
+                    finished(r);
+                });
+            }
+        } catch (InterruptedException e) {
+            // closed before all documents were fed
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            // the iterator broke, the batch stops here but says why
+            failure = new Result(-1, 0, 0, e);
+        } finally {
+            finished(failure);
+        }
+    }
+
+    private void finished(Result r) {
+        try {
+            if (r != null) {
+                done.put(r);
+            }
+            if (pending.decrementAndGet() == 0) {
+                done.put(END);
+                pool.shutdown();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // single use, read it from one thread
+    public Stream<Result> results() {
+        Spliterator<Result> it = new Spliterators.AbstractSpliterator<Result>(Long.MAX_VALUE, Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super Result> action) {
+                Result r;
+                try {
+                    r = done.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                if (r == END) {
+                    done.add(END); // stays at the end for any further reads
+                    return false;
+                }
+                slots.release();
+                count(r);
+                action.accept(r);
+                return true;
+            }
+        };
+        return StreamSupport.stream(it, false).onClose(this::close);
+    }
+
+    private synchronized void count(Result r) {
+        stats.docs++;
+        if (r.error != null) {
+            stats.failed++;
+        } else {
+            stats.words += r.wordCnt;
+            stats.sentences += r.sentenceCnt;
+        }
+    }
+
+    public synchronized Stats stats() {
+        Stats copy = new Stats();
+        copy.docs = stats.docs;
+        copy.failed = stats.failed;
+        copy.words = stats.words;
+        copy.sentences = stats.sentences;
+        return copy;
+    }
+
+    // stops feeding and drops whatever is still running
+    @Override
+    public void close() {
+        feeder.interrupt();
+        pool.shutdownNow();
+    }
+}
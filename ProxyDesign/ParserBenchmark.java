@@ -0,0 +1,84 @@
+package ProxyDesign;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+// throughput of the single pass BookParser vs the naive String.split way
+// run: java ProxyDesign.ParserBenchmark [sizeInMB]
+public class ParserBenchmark {
+
+    static final String[] WORDS = {
+            "the", "book", "parser", "proxy", "lazy", "object", "client", "heavy", "text", "word",
+            "sentence", "design", "pattern", "interface", "don't", "Java", "Observer", "factory", "search", "index"
+    };
+
+    public static void main(String[] args) {
+        int mb = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        String book = generate(mb * 1024 * 1024);
+        // the generated text is ASCII, so 1 byte per char both as UTF-8 and in a compact String
+        double sizeMb = book.length() / (1024.0 * 1024);
+
+        for (int round = 0; round < 3; round++) {
+            long start = System.nanoTime();
+            BookParser bp = new BookParser(book);
+            long tokenizerNs = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            int[] naive = naiveSplit(book);
+            long splitNs = System.nanoTime() - start;
+
+            System.out.printf("[ROUND %d] tokenizer: %.1f MB/s (%d words, %d sentences) | split: %.1f MB/s (%d words, %d sentences)%n",
+                    round, mbPerSec(sizeMb, tokenizerNs), bp.getWordCnt(), bp.getSentenceCnt(),
+                    mbPerSec(sizeMb, splitNs), naive[0], naive[1]);
+            if (round == 0) {
+                // index size vs the raw text
+                System.out.printf("[INDEX] %.2f MB for %.1f MB of text -> %.0f KB per indexed MB%n",
+                        bp.indexBytes() / (1024.0 * 1024), sizeMb, bp.indexBytes() / 1024.0 / sizeMb);
+                System.out.println("[INDEX] 'proxy' x" + bp.occurrences("proxy").length
+                        + ", first at char " + bp.firstOffset("proxy"));
+            }
+        }
+    }
+
+    // the baseline, copies the book into String[] twice and a String per word
+    static int[] naiveSplit(String book) {
+        Set<String> index = new HashSet<>();
+        int words = 0;
+        int sentences = 0;
+        for (String sentence : book.split("[.!?]")) {
+            boolean any = false;
+            for (String w : sentence.split("[^\\p{L}\\p{N}']+")) {
+                if (!w.isEmpty()) {
+                    index.add(w.toLowerCase());
+                    words++;
+                    any = true;
+                }
+            }
+            if (any) {
+                sentences++;
+            }
+        }
+        return new int[] { words, sentences };
+    }
+
+    static String generate(int chars) {
+        Random rand = new Random(42);
+        StringBuilder sb = new StringBuilder(chars + 32);
+        while (sb.length() < chars) {
+            int n = 5 + rand.nextInt(15);
+            for (int i = 0; i < n; i++) {
+                sb.append(WORDS[rand.nextInt(WORDS.length)]);
+                sb.append(i == n - 1 ? ". " : " ");
+            }
+            if (rand.nextInt(10) == 0) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    static double mbPerSec(double mb, long nanos) {
+        return mb / (nanos / 1e9);
+    }
+}
@@ -1,5 +1,8 @@
 package ProxyDesign;
 
+import java.nio.file.Path;
+import java.util.Iterator;
+
 public class ParserClient {
     ITextParser textParser;
 
@@ -13,6 +16,29 @@ public class ParserClient {
     public void print() {
         System.out.println("[PARSER CLIENT]-> does not use parser obj");
     }
+
+    // many documents at once, see ParserBatch. read the results with
+    // try (Stream<ParserBatch.Result> s = batch.results()) {...}, then batch.stats()
+    public static ParserBatch countAll(Iterable<? extends ITextParser> docs, int threads) {
+        return new ParserBatch(docs.iterator(), threads, threads * 4);
+    }
+
+    // books on disk, a proxy is only created when the feeder gets to the path
+    public static ParserBatch countAllPaths(Iterable<Path> paths, int threads) {
+        Iterator<Path> it = paths.iterator();
+        Iterator<ITextParser> docs = new Iterator<ITextParser>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public ITextParser next() {
+                return new BookParserProxy(it.next());
+            }
+        };
+        return new ParserBatch(docs, threads, threads * 4);
+    }
     
 
     //a fn which does not even use textParser
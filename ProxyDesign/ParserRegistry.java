@@ -0,0 +1,125 @@
+package ProxyDesign;
+
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// keeps many BookParserProxy objects under one memory budget.
+// when a proxy parses its book and the parsed books together go over the budget,
+// the least recently used ones are unloaded (parser nulled out).
+// they stay registered, the next call on them parses the book again (a reload).
+public class ParserRegistry {
+
+    private final long budgetBytes;
+    private final Map<String, BookParserProxy> proxies = new ConcurrentHashMap<>();
+
+    // guarded by "this"
+    private final Set<BookParserProxy> resident = new HashSet<>();
+    private long loads;
+    private long reloads;
+    private long unloads;
+
+    public ParserRegistry(long budgetBytes) {
+        this.budgetBytes=budgetBytes;
+    }
+
+    public ITextParser register(String name, String text) {
+        return add(name, new BookParserProxy(text));
+    }
+
+    public ITextParser register(String name, Path path) {
+        return add(name, new BookParserProxy(path));
+    }
+
+    private ITextParser add(String name, BookParserProxy proxy) {
+        proxy.registry = this;
+        BookParserProxy old = proxies.put(name, proxy);
+        if (old != null) {
+            // a caller may still hold the old proxy, it works on as a plain proxy
+            // and doesn't come back into resident (see loaded)
+            synchronized (this) {
+                old.registry = null;
+                resident.remove(old);
+            }
+            old.unload();
+        }
+        return proxy;
+    }
+
+    // null if nothing is registered under that name
+    public ITextParser get(String name) {
+        return proxies.get(name);
+    }
+
+    // called by a proxy right after it parsed its book
+    synchronized void loaded(BookParserProxy proxy) {
+        if (proxy.registry != this) {
+            return; // replaced while it was parsing
+        }
+        loads++;
+        if (proxy.getInitCnt() > 1) {
+            reloads++;
+        }
+        resident.add(proxy);
+        enforceBudget(proxy);
+    }
+
+    // called by a proxy whose edit buffer was allocated or grew, proxy itself is kept
+    synchronized void resized(BookParserProxy proxy) {
+        if (proxy.registry == this && resident.contains(proxy)) {
+            enforceBudget(proxy);
+        }
+    }
+
+    private void enforceBudget(BookParserProxy proxy) {
+        long total = 0;
+        for (BookParserProxy p : resident) {
+            total += p.residentBytes();
+        }
+        // evict by last access time, a scan is fine here as it only runs after a full parse or an edit
+        while (total > budgetBytes && resident.size() > 1) {
+            BookParserProxy victim = null;
+            for (BookParserProxy p : resident) {
+                if (p != proxy && (victim == null || p.lastAccess < victim.lastAccess)) {
+                    victim = p;
+                }
+            }
+            resident.remove(victim);
+            total -= victim.unload();
+            unloads++;
+        }
+    }
+
+    public synchronized long getResidentBytes() {
+        long total = 0;
+        for (BookParserProxy p : resident) {
+            total += p.residentBytes();
+        }
+        return total;
+    }
+
+    public synchronized int getResidentCnt() {
+        return resident.size();
+    }
+
+    public synchronized long getLoads() {
+        return loads;
+    }
+
+    public synchronized long getReloads() {
+        return reloads;
+    }
+
+    public synchronized long getUnloads() {
+        return unloads;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "[REGISTRY] registered=" + proxies.size() + " resident=" + resident.size()
+                + " residentBytes=" + getResidentBytes() + "/" + budgetBytes
+                + " loads=" + loads + " reloads=" + reloads + " unloads=" + unloads;
+    }
+}
@@ -0,0 +1,144 @@
+package ProxyDesign;
+
+// every distinct word is stored once and gets an int id.
+// open addressing over an int[] table, lookups compare chars in place,
+// so looking up a word that is already known does not allocate anything.
+public class TermDictionary {
+
+    private int[] table = new int[1024]; // slot -> id + 1, 0 means empty
+    private char[][] terms = new char[512][];
+    private int[] hashes = new int[512];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public char[] term(int id) {
+        return terms[id];
+    }
+
+    // id of the word or -1, the query is lowercased while comparing
+    public int find(CharSequence word) {
+        int h = hash(word);
+        int mask = table.length - 1;
+        for (int slot = h & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (hashes[id] == h && sameWord(terms[id], word)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    // same, for a word straight out of the tokenizer (already lowercased)
+    public int find(char[] buf, int len) {
+        int h = hash(buf, len);
+        int mask = table.length - 1;
+        for (int slot = h & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (hashes[id] == h && sameWord(terms[id], buf, len)) {
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    // id of the word, adding it if it is new. buf is expected lowercased
+    public int add(char[] buf, int len) {
+        int h = hash(buf, len);
+        int mask = table.length - 1;
+        int slot = h & mask;
+        for (; table[slot] != 0; slot = (slot + 1) & mask) {
+            int id = table[slot] - 1;
+            if (hashes[id] == h && sameWord(terms[id], buf, len)) {
+                return id;
+            }
+        }
+        if (size == terms.length) {
+            growTerms();
+        }
+        char[] copy = new char[len];
+        System.arraycopy(buf, 0, copy, 0, len);
+        int id = size++;
+        terms[id] = copy;
+        hashes[id] = h;
+        table[slot] = id + 1;
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    // rough heap size of the dictionary, arrays + per term char[] headers
+    public long memoryBytes() {
+        long bytes = 4L * table.length + 8L * terms.length + 4L * hashes.length;
+        for (int i = 0; i < size; i++) {
+            bytes += 16 + 2L * terms[i].length;
+        }
+        return bytes;
+    }
+
+    private void growTerms() {
+        int n = terms.length * 2;
+        char[][] t = new char[n][];
+        System.arraycopy(terms, 0, t, 0, size);
+        terms = t;
+        int[] h = new int[n];
+        System.arraycopy(hashes, 0, h, 0, size);
+        hashes = h;
+    }
+
+    private void rehash() {
+        int[] t = new int[table.length * 2];
+        int mask = t.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (t[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            t[slot] = id + 1;
+        }
+        table = t;
+    }
+
+    private static int hash(char[] buf, int len) {
+        int h = 0;
+        for (int i = 0; i < len; i++) {
+            h = 31 * h + buf[i];
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int hash(CharSequence word) {
+        int h = 0;
+        for (int i = 0; i < word.length(); i++) {
+            h = 31 * h + Character.toLowerCase(word.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean sameWord(char[] term, char[] buf, int len) {
+        if (term.length != len) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (term[i] != buf[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean sameWord(char[] term, CharSequence word) {
+        if (term.length != word.length()) {
+            return false;
+        }
+        for (int i = 0; i < term.length; i++) {
+            if (term[i] != Character.toLowerCase(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,150 @@
+package ProxyDesign;
+
+import java.io.IOException;
+import java.io.Reader;
+
+// single pass tokenizer, looks at every char exactly once.
+// words are runs of letters/digits (an apostrophe inside a word is kept, "don't"),
+// a sentence ends at . ! or ? once at least one word was seen after the previous end.
+// the current word is built in one reusable char[] and handed to the listener,
+// so nothing is allocated per word (no substring, no String[] from split).
+public class TextTokenizer {
+
+    public interface WordListener {
+        // buf is reused for the next word, copy it if you need to keep it
+        void onWord(char[] buf, int len, long offset);
+    }
+
+    private final WordListener listener;
+
+    private char[] buf = new char[32];
+    private int len;
+    private long wordStart;
+    private long offset;
+
+    private int wordCnt;
+    private int sentenceCnt;
+    private boolean openSentence;
+    // needed to glue chunks back together in the parallel parse
+    private boolean sawTerminator;
+    private boolean terminatorBeforeFirstWord;
+
+    public TextTokenizer(WordListener listener) {
+        this(listener, 0);
+    }
+
+    // for a chunk of a bigger text, offsets reported to the listener start at startOffset
+    public TextTokenizer(WordListener listener, long startOffset) {
+        this.listener=listener;
+        this.offset=startOffset;
+    }
+
+    public void feed(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            accept(text.charAt(i));
+        }
+    }
+
+    public void feed(char[] chars, int from, int to) {
+        for (int i = from; i < to; i++) {
+            accept(chars[i]);
+        }
+    }
+
+    // streams the reader through a small buffer, the reader is not closed here
+    public void feed(Reader reader) throws IOException {
+        char[] chunk = new char[8192];
+        int n;
+        while ((n = reader.read(chunk)) != -1) {
+            feed(chunk, 0, n);
+        }
+    }
+
+    // flushes the last word, and counts a trailing sentence without a full stop
+    public void finish() {
+        flush();
+        if (openSentence) {
+            sentenceCnt++;
+            openSentence = false;
+        }
+    }
+
+    // end of a chunk, the last word is flushed but an open sentence is left open
+    // since the next chunk may finish it
+    public void flush() {
+        endWord();
+    }
+
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '\'';
+    }
+
+    private void accept(char c) {
+        if (Character.isLetterOrDigit(c) || (c == '\'' && len > 0)) {
+            if (len == 0) {
+                wordStart = offset;
+            }
+            if (len == buf.length) {
+                char[] bigger = new char[buf.length * 2];
+                System.arraycopy(buf, 0, bigger, 0, len);
+                buf = bigger;
+            }
+            buf[len++] = Character.toLowerCase(c);
+        } else {
+            endWord();
+            if (c == '.' || c == '!' || c == '?') {
+                if (openSentence) {
+                    sentenceCnt++;
+                    openSentence = false;
+                } else if (wordCnt == 0 && !sawTerminator) {
+                    terminatorBeforeFirstWord = true;
+                }
+                sawTerminator = true;
+            }
+        }
+        offset++;
+    }
+
+    private void endWord() {
+        // "books'" -> "books"
+        while (len > 0 && buf[len - 1] == '\'') {
+            len--;
+        }
+        if (len == 0) {
+            return;
+        }
+        wordCnt++;
+        openSentence = true;
+        if (listener != null) {
+            listener.onWord(buf, len, wordStart);
+        }
+        len = 0;
+    }
+
+    public int getWordCnt() {
+        return wordCnt;
+    }
+
+    public int getSentenceCnt() {
+        return sentenceCnt;
+    }
+
+    // words seen after the last . ! or ?
+    public boolean isSentenceOpen() {
+        return openSentence;
+    }
+
+    public boolean sawTerminator() {
+        return sawTerminator;
+    }
+
+    // a . ! or ? came before any word, it closes a sentence from the previous chunk
+    public boolean terminatorBeforeFirstWord() {
+        return terminatorBeforeFirstWord;
+    }
+
+    // number of chars consumed so far
+    public long getOffset() {
+        return offset;
+    }
+}
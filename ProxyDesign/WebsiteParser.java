@@ -1,30 +1,86 @@
 package ProxyDesign;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// pages are html, only the visible text is counted and indexed (see HtmlTextExtractor).
+// offsets from firstOffset() are positions in that visible text, not in the raw html.
 public class WebsiteParser implements ITextParser {
 
     String text;
 
+    private int wordCnt;
+    private int sentenceCnt;
+    private final WordIndex index = new WordIndex();
+
     public WebsiteParser(String text) {
         this.text=text;
+        TextTokenizer tokenizer = new TextTokenizer(index);
+        HtmlTextExtractor html = new HtmlTextExtractor(tokenizer);
+        html.feed(text, 0, text.length());
+        done(html, tokenizer);
+    }
+
+    // streamed, the page is never held in memory as a whole
+    public WebsiteParser(Reader page) throws IOException {
+        parse(page);
+    }
+
+    // scraped pages often have broken bytes, they become U+FFFD (as in BookParser(Path))
+    // instead of failing the whole page
+    public WebsiteParser(Path savedPage) throws IOException {
+        try (Reader page = new InputStreamReader(Files.newInputStream(savedPage), StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE))) {
+            parse(page);
+        }
+    }
+
+    private void parse(Reader page) throws IOException {
+        TextTokenizer tokenizer = new TextTokenizer(index);
+        HtmlTextExtractor html = new HtmlTextExtractor(tokenizer);
+        html.feed(page);
+        done(html, tokenizer);
+    }
+
+    private void done(HtmlTextExtractor html, TextTokenizer tokenizer) {
+        html.finish();
+        this.wordCnt = tokenizer.getWordCnt();
+        this.sentenceCnt = tokenizer.getSentenceCnt();
     }
 
 
     @Override
     public int getWordCnt() {
         System.out.println("[WEBSITE PARSER] -> word cnt");
-        return 1;
+        return wordCnt;
     }
 
     @Override
     public int getSentenceCnt() {
         System.out.println("[WEBSITE PARSER]-> sentene cnt");
-        return 1;
+        return sentenceCnt;
     }
 
+    // hot path for the query service, just a hash lookup (no logging here)
     @Override
     public boolean searchWord(String word) {
-        System.out.println("[WEBSITE PARSER]-> searching word!");
-        return true;
+        return index.contains(word);
+    }
+
+    @Override
+    public int[] occurrences(String word) {
+        return index.occurrences(word);
+    }
+
+    @Override
+    public long firstOffset(String word) {
+        return index.firstOffset(word);
     }
     
 }
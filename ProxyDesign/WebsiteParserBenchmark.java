@@ -0,0 +1,86 @@
+package ProxyDesign;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// throughput of the streaming html WebsiteParser over saved pages
+// run: java ProxyDesign.WebsiteParserBenchmark [dirWithHtmlFiles]
+// without a dir a few synthetic pages of several MB are written to a temp dir first
+public class WebsiteParserBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        Path dir = args.length > 0 ? Path.of(args[0]) : syntheticCorpus(8, 4);
+        List<Path> pages = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.filter(p -> p.toString().endsWith(".html") || p.toString().endsWith(".htm")).forEach(pages::add);
+        }
+        long bytes = 0;
+        for (Path p : pages) {
+            bytes += Files.size(p);
+        }
+        double mb = bytes / (1024.0 * 1024);
+        System.out.printf("[CORPUS] %d pages, %.1f MB in %s%n", pages.size(), mb, dir);
+        check();
+
+        for (int round = 0; round < 3; round++) {
+            long words = 0;
+            long start = System.nanoTime();
+            for (Path p : pages) {
+                words += new WebsiteParser(p).occurrences("the").length;
+            }
+            long ns = System.nanoTime() - start;
+            System.out.printf("[ROUND %d] %.1f MB/s ('the' x%d)%n", round, mb / (ns / 1e9), words);
+        }
+    }
+
+    // tricky markup, each must give the expected word count or the MB/s above mean nothing
+    static void check() {
+        String[] html = {
+                "<p title='don't'>quote</p> after",
+                "<p title = \"a > b\">inside</p><br/>next",
+                "<img alt=it's>bo<b>ld</b> a < b",
+                "<script>if (a < b) { s = '</p>'; }</script>one<!-- <p>two</p> -->"
+        };
+        int[] expected = {2, 2, 3, 1};
+        for (int i = 0; i < html.length; i++) {
+            int got = new WebsiteParser(html[i]).getWordCnt();
+            System.out.println((got == expected[i] ? "[CHECK] ok " : "[CHECK] FAILED ") + got + "/" + expected[i]
+                    + " words in " + html[i]);
+        }
+    }
+
+    static Path syntheticCorpus(int pages, int mbPerPage) throws IOException {
+        Path dir = Files.createTempDirectory("html-corpus");
+        Random rand = new Random(7);
+        for (int i = 0; i < pages; i++) {
+            StringBuilder sb = new StringBuilder("<!DOCTYPE html><html><head><title>page ").append(i)
+                    .append("</title><style>body { font: 12px sans-serif; } p > a { color: #333; }</style>")
+                    .append("<script>var data = [1, 2, 3]; if (a < b) { run('<p>'); }</script></head><body>\n");
+            while (sb.length() < mbPerPage * 1024 * 1024) {
+                sb.append("<div class=\"post\" id=\"p").append(rand.nextInt(1000)).append("\">")
+                        .append(rand.nextInt(20) == 0 ? "<p title='don't'>" : "<p>");
+                int n = 5 + rand.nextInt(30);
+                for (int w = 0; w < n; w++) {
+                    String word = ParserBenchmark.WORDS[rand.nextInt(ParserBenchmark.WORDS.length)];
+                    if (rand.nextInt(12) == 0) {
+                        sb.append("<a href=\"/wiki/").append(word).append("\">").append(word).append("</a> ");
+                    } else if (rand.nextInt(40) == 0) {
+                        sb.append(word).append(" &amp; ");
+                    } else {
+                        sb.append(word).append(' ');
+                    }
+                }
+                sb.append(rand.nextBoolean() ? "the end.</p>" : "the end&#33;</p>")
+                        .append("<!-- tracking --></div>\n");
+            }
+            sb.append("</body></html>");
+            Files.writeString(dir.resolve("page" + i + ".html"), sb);
+        }
+        return dir;
+    }
+}
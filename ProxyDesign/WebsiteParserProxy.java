@@ -2,8 +2,10 @@ package ProxyDesign;
 
 public class WebsiteParserProxy implements ITextParser{
     
-    WebsiteParser wp;
+    // see BookParserProxy, same double checked locking
+    volatile WebsiteParser wp;
     String text;
+    int initCnt; // only touched inside the lock
 
     public WebsiteParserProxy(String text) {
         this.text=text;
@@ -12,32 +14,54 @@ public class WebsiteParserProxy implements ITextParser{
 
     void init() {
         System.out.println("[INIT]-> bookParser");
+        initCnt++;
         wp = new WebsiteParser(text);
     }
+
+    WebsiteParser parser() {
+        WebsiteParser p = wp;
+        if (p == null) {
+            synchronized (this) {
+                if (wp == null) {
+                    init();
+                }
+                p = wp;
+            }
+        }
+        return p;
+    }
+
+    public int getInitCnt() {
+        synchronized (this) {
+            return initCnt;
+        }
+    }
     
     @Override
     public int getWordCnt() {
-        if(wp==null) {
-            init();
-        }
+        WebsiteParser p = parser();
         System.out.println("[WEBSITE PARSER PROXY]-> called WebsiteParser obj");
-        return wp.getWordCnt();
+        return p.getWordCnt();
     }
 
     @Override
     public int getSentenceCnt() {
-        if(wp==null) {
-            init();
-        }
-        return wp.getSentenceCnt();
+        return parser().getSentenceCnt();
     }
 
     @Override
     public boolean searchWord(String word) {
-        if(wp==null) {
-            init();
-        }
-        return wp.searchWord(word);
+        return parser().searchWord(word);
+    }
+
+    @Override
+    public int[] occurrences(String word) {
+        return parser().occurrences(word);
+    }
+
+    @Override
+    public long firstOffset(String word) {
+        return parser().firstOffset(word);
     }
     
 }
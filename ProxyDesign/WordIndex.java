@@ -0,0 +1,221 @@
+package ProxyDesign;
+
+// inverted index built while tokenizing.
+// term -> id comes from the TermDictionary, id -> postings is kept in plain arrays.
+// a posting is the word position (0 for the first word of the text, 1 for the next...),
+// stored as the gap from the previous position in a varint byte[],
+// so a frequent word costs ~1 byte per occurrence instead of a boxed Integer in a list.
+public class WordIndex implements TextTokenizer.WordListener {
+
+    private static final int[] NONE = new int[0];
+
+    private final TermDictionary dictionary = new TermDictionary();
+
+    private byte[][] postings = new byte[512][];
+    private int[] postingLen = new int[512];
+    private int[] lastPos = new int[512];
+    private int[] freq = new int[512];
+    private long[] firstOffset = new long[512];
+
+    // live count per term. same as freq until the text is edited, after an edit
+    // only these are kept up to date and the positions are stale (see BookParser.applyEdit)
+    private int[] live = new int[512];
+    private boolean stale;
+
+    private int nextPos;
+
+    @Override
+    public void onWord(char[] buf, int len, long offset) {
+        addPosting(dictionary.add(buf, len), nextPos++, offset);
+    }
+
+    // appends the index of the text that comes right after this one (parallel parse).
+    // part's word positions are shifted by the words already in here.
+    // only the first gap of every term is re-encoded, the rest of its postings are
+    // gaps already and are copied over as bytes, so this is one copy of part's postings.
+    // part must be a fresh index (not edited).
+    public void append(WordIndex part) {
+        int shift = nextPos;
+        for (int partId = 0; partId < part.dictionary.size(); partId++) {
+            int n = part.freq[partId];
+            if (n == 0) {
+                continue;
+            }
+            char[] term = part.dictionary.term(partId);
+            int id = dictionary.add(term, term.length);
+            if (id == freq.length) {
+                grow();
+            }
+            byte[] p = part.postings[partId];
+            int firstPos = 0;
+            int bits = 0;
+            int i = 0;
+            byte b;
+            do {
+                b = p[i++];
+                firstPos |= (b & 0x7F) << bits;
+                bits += 7;
+            } while (b < 0);
+
+            int rest = part.postingLen[partId] - i;
+            if (freq[id] == 0) {
+                firstOffset[id] = part.firstOffset[partId];
+                postings[id] = new byte[rest + 5];
+                writeVarint(id, shift + firstPos);
+            } else {
+                writeVarint(id, shift + firstPos - lastPos[id]);
+            }
+            int at = postingLen[id];
+            if (at + rest > postings[id].length) {
+                byte[] bigger = new byte[Math.max(postings[id].length * 2, at + rest)];
+                System.arraycopy(postings[id], 0, bigger, 0, at);
+                postings[id] = bigger;
+            }
+            System.arraycopy(p, i, postings[id], at, rest);
+            postingLen[id] = at + rest;
+            lastPos[id] = shift + part.lastPos[partId];
+            freq[id] += n;
+            live[id] += n;
+        }
+        nextPos += part.nextPos;
+    }
+
+    private void addPosting(int id, int pos, long offset) {
+        if (id == freq.length) {
+            grow();
+        }
+        if (freq[id] == 0) {
+            firstOffset[id] = offset;
+            postings[id] = new byte[4];
+            writeVarint(id, pos);
+        } else {
+            writeVarint(id, pos - lastPos[id]);
+        }
+        lastPos[id] = pos;
+        freq[id]++;
+        live[id]++;
+    }
+
+    // edits, only the counts move. cheap, but positions are stale afterwards
+    public void addOccurrence(char[] buf, int len) {
+        int id = dictionary.add(buf, len);
+        if (id == freq.length) {
+            grow();
+        }
+        live[id]++;
+        stale = true;
+    }
+
+    public void removeOccurrence(char[] buf, int len) {
+        int id = dictionary.find(buf, len);
+        if (id >= 0 && live[id] > 0) {
+            live[id]--;
+        }
+        stale = true;
+    }
+
+    // occurrences()/firstOffset() are not valid anymore, the index has to be rebuilt
+    public boolean isStale() {
+        return stale;
+    }
+
+    // any edit shifts offsets, even one that adds or removes no word
+    public void markStale() {
+        stale = true;
+    }
+
+    public boolean contains(String word) {
+        int id = dictionary.find(word);
+        return id >= 0 && live[id] > 0;
+    }
+
+    public int frequency(String word) {
+        int id = dictionary.find(word);
+        return id < 0 ? 0 : live[id];
+    }
+
+    // word positions of every occurrence, in order
+    public int[] occurrences(String word) {
+        int id = dictionary.find(word);
+        if (id < 0) {
+            return NONE;
+        }
+        int[] out = new int[freq[id]];
+        byte[] p = postings[id];
+        int pos = 0;
+        int i = 0;
+        for (int n = 0; n < out.length; n++) {
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = p[i++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            pos += gap;
+            out[n] = pos;
+        }
+        return out;
+    }
+
+    // char offset of the first occurrence, -1 if the word is not there
+    public long firstOffset(String word) {
+        int id = dictionary.find(word);
+        return id < 0 ? -1 : firstOffset[id];
+    }
+
+    public int termCnt() {
+        return dictionary.size();
+    }
+
+    // rough heap size of dictionary + postings
+    public long memoryBytes() {
+        long bytes = dictionary.memoryBytes();
+        bytes += 8L * postings.length + 4L * postingLen.length + 4L * lastPos.length
+                + 4L * freq.length + 8L * firstOffset.length + 4L * live.length;
+        for (int id = 0; id < dictionary.size(); id++) {
+            if (postings[id] != null) {
+                bytes += 16 + postings[id].length;
+            }
+        }
+        return bytes;
+    }
+
+    private void writeVarint(int id, int value) {
+        byte[] p = postings[id];
+        int at = postingLen[id];
+        if (at + 5 > p.length) {
+            byte[] bigger = new byte[Math.max(p.length * 2, at + 5)];
+            System.arraycopy(p, 0, bigger, 0, at);
+            p = bigger;
+            postings[id] = p;
+        }
+        while ((value & ~0x7F) != 0) {
+            p[at++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        p[at++] = (byte) value;
+        postingLen[id] = at;
+    }
+
+    private void grow() {
+        int n = freq.length * 2;
+        byte[][] p = new byte[n][];
+        System.arraycopy(postings, 0, p, 0, postings.length);
+        postings = p;
+        postingLen = copy(postingLen, n);
+        lastPos = copy(lastPos, n);
+        freq = copy(freq, n);
+        live = copy(live, n);
+        long[] f = new long[n];
+        System.arraycopy(firstOffset, 0, f, 0, firstOffset.length);
+        firstOffset = f;
+    }
+
+    private static int[] copy(int[] a, int n) {
+        int[] b = new int[n];
+        System.arraycopy(a, 0, b, 0, a.length);
+        return b;
+    }
+}